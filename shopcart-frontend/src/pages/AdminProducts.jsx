@@ -338,9 +338,9 @@ const AdminProducts = () => {
 
               <td>{p.stock}</td>
               <td>
-                {p.imageUrl && (
+                {p.thumbnailUrl && (
                   <img
-                    src={`http://localhost:8080/${p.imageUrl}`}
+                    src={`http://localhost:8080/${p.thumbnailUrl}`}
                     alt={p.name}
                     className="rounded shadow-sm border"
                     style={{ width: "60px", height: "60px", objectFit: "cover" }}
@@ -7,16 +7,19 @@ import { toast } from "react-toastify";
 const Cart = () => {
   const { token } = useContext(AuthContext);
   const [cartItems, setCartItems] = useState([]);
+  const [summary, setSummary] = useState({ subtotal: 0, savings: 0, total: 0 });
   const [loading, setLoading] = useState(true);
   const navigate = useNavigate();
 
   useEffect(() => {
     const fetchCartItems = async () => {
       try {
-        const res = await axios.get("http://localhost:8080/api/cart", {
+        // lines and totals in one call
+        const res = await axios.get("http://localhost:8080/api/cart/summary", {
           headers: { Authorization: `Bearer ${token}` },
         });
-        setCartItems(res.data);
+        setCartItems(res.data.items);
+        setSummary(res.data);
       } catch {
         toast.error("⚠ Please login to view cart.");
       } finally {
@@ -32,10 +35,17 @@ const Cart = () => {
       headers: { Authorization: `Bearer ${token}` },
     });
     setCartItems((prev) => prev.filter((i) => i.id !== cartItemId));
+    setSummary((prev) => {
+      const removed = cartItems.find((i) => i.id === cartItemId);
+      if (!removed) return prev;
+      const subtotal = prev.subtotal - removed.quantity * removed.product.originalPrice;
+      const total = prev.total - removed.total;
+      return { ...prev, subtotal, total, savings: subtotal - total };
+    });
     toast.success("✅ Item removed.");
   };
 
-  const grandTotal = cartItems.reduce((sum, i) => sum + i.total, 0);
+  const grandTotal = summary.total;
 
   if (loading) return <div className="text-center mt-5">Loading...</div>;
 
@@ -73,6 +83,15 @@ const Cart = () => {
                   </td>
                 </tr>
               ))}
+              {summary.savings > 0 && (
+                <tr>
+                  <td colSpan="3" className="text-end text-success">
+                    You save:
+                  </td>
+                  <td className="text-success">₹{summary.savings}</td>
+                  <td></td>
+                </tr>
+              )}
               <tr>
                 <td colSpan="3" className="text-end fw-bold">
                   Grand Total:
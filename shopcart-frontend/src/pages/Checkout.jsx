@@ -38,18 +38,16 @@ const Checkout = () => {
     );
   };
 
-  const simulatePayment = async (method) => {
-    setIsPaying(true);
-    await new Promise((res) => setTimeout(res, 1500));
-    const success = Math.random() < 0.9; // 90% success rate
-    if (success) {
-      const txnId = "TXN-" + Date.now();
-      toast.success(`💳 ${method} Payment Success! TXN: ${txnId}`);
-      return { status: "SUCCESS", txnId };
-    } else {
-      toast.error("❌ Payment Failed!");
-      return { status: "FAILED" };
+  // the order is created PENDING; the payment result arrives a moment later
+  const waitForPayment = async (orderId) => {
+    for (let attempt = 0; attempt < 30; attempt++) {
+      await new Promise((res) => setTimeout(res, 1000));
+      const res = await axios.get(`http://localhost:8080/api/orders/${orderId}`, {
+        headers: { Authorization: `Bearer ${token}` },
+      });
+      if (res.data.status !== "PENDING") return res.data;
     }
+    return null;
   };
 
   const placeOrder = async (method) => {
@@ -58,25 +56,29 @@ const Checkout = () => {
       return;
     }
 
-    const payment = await simulatePayment(method);
-    if (payment.status !== "SUCCESS") {
-      setIsPaying(false);
-      return;
-    }
-
     const orderRequest = {
       shippingAddress: address, // ✅ same object as backend expects
       paymentMethod: method,
       totalAmount: grandTotal,
-      transactionId: payment.txnId,
     };
 
+    setIsPaying(true);
     try {
-      await axios.post("http://localhost:8080/api/orders/place", orderRequest, {
+      const res = await axios.post("http://localhost:8080/api/orders/place", orderRequest, {
         headers: { Authorization: `Bearer ${token}` },
       });
-      toast.success("🎉 Order placed successfully!");
-      navigate("/orders");
+      const order = await waitForPayment(res.data.id);
+      if (!order) {
+        toast.info("⏳ Payment is still processing. Check your orders shortly.");
+        navigate("/orders");
+      } else if (order.status === "FAILED") {
+        toast.error("❌ Payment Failed! Your items are back in the cart.");
+        navigate("/cart");
+      } else {
+        toast.success(`💳 ${method} Payment Success! TXN: ${order.transactionId}`);
+        toast.success("🎉 Order placed successfully!");
+        navigate("/orders");
+      }
     } catch (err) {
       toast.error("❌ Failed to place order!");
       console.error(err);
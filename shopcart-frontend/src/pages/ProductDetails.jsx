@@ -93,8 +93,8 @@ const ProductDetails = () => {
             )}
             <img
               src={
-                product.imageUrl
-                  ? `http://localhost:8080/${product.imageUrl}`
+                product.detailImageUrl
+                  ? `http://localhost:8080/${product.detailImageUrl}`
                   : "/images/shopcart_logo.png"
               }
               alt={product.name}
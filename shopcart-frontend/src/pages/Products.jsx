@@ -3,15 +3,22 @@ import axios from 'axios';
 import { Link } from 'react-router-dom';
 import { AuthContext } from '../context/AuthContext';
 
+const PAGE_SIZE = 48;
+
 const Products = () => {
   const [products, setProducts] = useState([]);
   const [filteredProducts, setFilteredProducts] = useState([]);
   const [searchQuery, setSearchQuery] = useState("");
   const [categories, setCategories] = useState([]);
   const [selectedCategory, setSelectedCategory] = useState("All");
+  const [nextCursor, setNextCursor] = useState(null);
+  const [filterPage, setFilterPage] = useState(0);
+  const [filterHasNext, setFilterHasNext] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [sortOption, setSortOption] = useState("default");
   const { token } = useContext(AuthContext);
   const [timeLeft, setTimeLeft] = useState({});
+  const [suggestions, setSuggestions] = useState([]);
 
   const addToCart = async (productId) => {
     try {
@@ -26,24 +33,34 @@ const Products = () => {
     }
   };
 
-  // Fetch products and categories
+  // ✅ Type-ahead suggestions (debounced, served from the backend's in-memory index)
   useEffect(() => {
-    const fetchProducts = async () => {
+    if (!searchQuery.trim()) {
+      setSuggestions([]);
+      return;
+    }
+    const timer = setTimeout(async () => {
       try {
-        const res = await axios.get("http://localhost:8080/api/products");
-        setProducts(res.data);
-        setFilteredProducts(res.data);
-        initializeTimers(res.data);
-
-        // Extract categories from products
-        // When fetching categories
-        // ✅ Extract categories from products and set state
-        const cats = ["All", ...new Set(res.data.map(p => p.category?.name || "Uncategorized"))];
-        setCategories(cats);
-
-
-
+        const res = await axios.get("http://localhost:8080/api/products/suggest", {
+          params: { q: searchQuery, limit: 8 },
+        });
+        setSuggestions(res.data);
+      } catch {
+        setSuggestions([]);
+      }
+    }, 120);
+    return () => clearTimeout(timer);
+  }, [searchQuery]);
 
+  // ✅ First page of products; the rest is fetched page by page with "Load more"
+  useEffect(() => {
+    const fetchProducts = async () => {
+      try {
+        const res = await axios.get("http://localhost:8080/api/products", { params: { limit: PAGE_SIZE } });
+        setProducts(res.data.items);
+        setFilteredProducts(res.data.items);
+        setNextCursor(res.data.nextCursor);
+        initializeTimers(res.data.items);
       } catch (err) {
         console.error(err);
       }
@@ -51,6 +68,20 @@ const Products = () => {
     fetchProducts();
   }, []);
 
+  // ✅ Categories from the catalog, not from whichever products are loaded so far
+  useEffect(() => {
+    const fetchCategories = async () => {
+      try {
+        const res = await axios.get("http://localhost:8080/api/categories");
+        setCategories(res.data);
+      } catch (err) {
+        console.error(err);
+      }
+    };
+    fetchCategories();
+  }, []);
+
+  // merges into the running timers so products of later pages keep theirs
   const initializeTimers = (products) => {
     const timers = {};
     products.forEach((p) => {
@@ -59,7 +90,7 @@ const Products = () => {
         timers[p.id] = Math.max(0, endTime - new Date().getTime());
       }
     });
-    setTimeLeft(timers);
+    setTimeLeft(prev => ({ ...prev, ...timers }));
   };
 
   useEffect(() => {
@@ -84,29 +115,69 @@ const Products = () => {
     return `${hours}:${minutes}:${seconds}`;
   };
 
-  // Filter & Sort
-  useEffect(() => {
-    let temp = [...products];
+  const isFiltered = searchQuery.trim() || selectedCategory !== "All" || sortOption !== "default";
+
+  const fetchFiltered = (page) => {
+    const sort =
+      sortOption === "priceLowHigh" ? "price,asc" :
+      sortOption === "priceHighLow" ? "price,desc" : undefined;
+    return axios.get("http://localhost:8080/api/products/filter", {
+      params: {
+        search: searchQuery.trim() || undefined,
+        categoryId: selectedCategory !== "All" ? selectedCategory : undefined,
+        sort,
+        page,
+        size: PAGE_SIZE,
+      },
+    });
+  };
 
-    // Search filter
-    if (searchQuery.trim()) {
-      temp = temp.filter(p =>
-        p.name.toLowerCase().includes(searchQuery.toLowerCase())
-      );
+  // ✅ Filter & Sort on the server (debounced); the unfiltered list is already on screen
+  useEffect(() => {
+    if (!isFiltered) {
+      setFilteredProducts(products);
+      return;
     }
+    const timer = setTimeout(async () => {
+      try {
+        const res = await fetchFiltered(0);
+        setFilteredProducts(res.data.items);
+        setFilterPage(0);
+        setFilterHasNext(res.data.hasNext);
+        initializeTimers(res.data.items);
+      } catch (err) {
+        console.error(err);
+      }
+    }, 200);
+    return () => clearTimeout(timer);
+  }, [searchQuery, selectedCategory, sortOption, products]);
 
-    // Category filter
-    if (selectedCategory !== "All") {
-      temp = temp.filter(p => p.category?.name === selectedCategory);
+  // ✅ Next page: follows nextCursor for the full list, the next page number for filtered results
+  const loadMore = async () => {
+    setLoadingMore(true);
+    try {
+      if (isFiltered) {
+        const res = await fetchFiltered(filterPage + 1);
+        setFilteredProducts(prev => [...prev, ...res.data.items]);
+        setFilterPage(filterPage + 1);
+        setFilterHasNext(res.data.hasNext);
+        initializeTimers(res.data.items);
+      } else {
+        const res = await axios.get("http://localhost:8080/api/products", {
+          params: { cursor: nextCursor, limit: PAGE_SIZE },
+        });
+        setProducts(prev => [...prev, ...res.data.items]);
+        setNextCursor(res.data.nextCursor);
+        initializeTimers(res.data.items);
+      }
+    } catch (err) {
+      console.error(err);
+    } finally {
+      setLoadingMore(false);
     }
+  };
 
-
-    // Sorting
-    if (sortOption === "priceLowHigh") temp.sort((a, b) => a.price - b.price);
-    if (sortOption === "priceHighLow") temp.sort((a, b) => b.price - a.price);
-
-    setFilteredProducts(temp);
-  }, [searchQuery, selectedCategory, sortOption, products]);
+  const hasMore = isFiltered ? filterHasNext : !!nextCursor;
 
   return (
     <div className="container-fluid my-2 px-4">
@@ -136,7 +207,13 @@ const Products = () => {
                 placeholder="Search for mobiles, laptops, accessories..."
                 value={searchQuery}
                 onChange={(e) => setSearchQuery(e.target.value)}
+                list="product-suggestions"
               />
+              <datalist id="product-suggestions">
+                {suggestions.map((s) => (
+                  <option key={`${s.type}-${s.id}`} value={s.text} />
+                ))}
+              </datalist>
             </div>
           </div>
 
@@ -147,9 +224,10 @@ const Products = () => {
               value={selectedCategory}
               onChange={(e) => setSelectedCategory(e.target.value)}
             >
-              {categories.map((cat, index) => (
-                <option key={index} value={cat}>
-                  {cat}
+              <option value="All">All</option>
+              {categories.map((cat) => (
+                <option key={cat.id} value={cat.id}>
+                  {cat.name}
                 </option>
               ))}
             </select>
@@ -203,11 +281,12 @@ const Products = () => {
                   <Link to={`/products/${product.id}`} className="text-decoration-none text-dark flex-grow-1">
                     <img
                       src={
-                        product.imageUrl
-                          ? `http://localhost:8080/${product.imageUrl}`
+                        product.cardImageUrl
+                          ? `http://localhost:8080/${product.cardImageUrl}`
                           : "/images/shopcart_logo.png"
                       }
                       alt={product.name}
+                      loading="lazy"
                       className="card-img-top rounded-top-4"
                       style={{ height: "220px", objectFit: "cover", width: "100%" }}
                     />
@@ -264,6 +343,18 @@ const Products = () => {
           <p className="text-center text-muted">No products found</p>
         )}
       </div>
+
+      {hasMore && (
+        <div className="text-center my-4">
+          <button
+            className="btn btn-outline-warning rounded-pill px-4 shadow-sm"
+            onClick={loadMore}
+            disabled={loadingMore}
+          >
+            {loadingMore ? "Loading..." : "Load more"}
+          </button>
+        </div>
+      )}
     </div>
   );
 
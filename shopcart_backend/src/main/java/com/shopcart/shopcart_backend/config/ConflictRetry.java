@@ -0,0 +1,45 @@
+package com.shopcart.shopcart_backend.config;
+
+import jakarta.persistence.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Retry loop behind @RetryOnConflict, also usable directly where the call cannot go through a proxy
+public final class ConflictRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConflictRetry.class);
+
+    private ConflictRetry() {
+    }
+
+    @FunctionalInterface
+    public interface Attempt<T> {
+        T run() throws Throwable;
+    }
+
+    public static <T> T call(String operation, int maxAttempts, long backoffMs, Attempt<T> attempt) throws Throwable {
+        for (int tried = 1; ; tried++) {
+            try {
+                return attempt.run();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (tried >= maxAttempts) {
+                    logger.warn("{} still conflicting after {} attempts, giving up", operation, tried);
+                    throw e;
+                }
+                // full jitter: anywhere up to the exponential bound, so the racers spread out
+                long bound = backoffMs << (tried - 1);
+                long sleep = ThreadLocalRandom.current().nextLong(bound + 1);
+                logger.debug("{} hit a concurrent update (attempt {}), retrying in {} ms", operation, tried, sleep);
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+}
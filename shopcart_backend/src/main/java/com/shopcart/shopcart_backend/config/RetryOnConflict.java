@@ -0,0 +1,24 @@
+package com.shopcart.shopcart_backend.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs the method, in a fresh transaction, when it loses an optimistic-locking race
+ * (another request changed the same versioned row first). The method must be safe to repeat:
+ * it re-reads what it changes. See {@link ConflictRetry} for the backoff.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+
+    // total attempts, including the first
+    int maxAttempts() default 4;
+
+    // first backoff; each further one doubles, with full jitter
+    long backoffMs() default 25;
+}
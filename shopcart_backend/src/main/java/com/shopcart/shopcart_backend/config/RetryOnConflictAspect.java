@@ -0,0 +1,20 @@
+package com.shopcart.shopcart_backend.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Runs outside the transaction advice, so every attempt gets its own transaction
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RetryOnConflictAspect {
+
+    @Around("@annotation(retry)")
+    public Object retry(ProceedingJoinPoint call, RetryOnConflict retry) throws Throwable {
+        return ConflictRetry.call(call.getSignature().toShortString(), retry.maxAttempts(), retry.backoffMs(), call::proceed);
+    }
+}
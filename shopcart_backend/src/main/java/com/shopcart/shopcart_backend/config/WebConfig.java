@@ -1,17 +0,0 @@
-package com.shopcart.shopcart_backend.config;
-
-import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-
-@Configuration
-public class WebConfig implements WebMvcConfigurer {
-
-    @Override
-public void addResourceHandlers(ResourceHandlerRegistry registry) {
-    registry.addResourceHandler("/product-images/**")
-            .addResourceLocations("file:F:/Projects/shopcart_uploads/product-images/");
-}
-
-}
-
@@ -0,0 +1,86 @@
+package com.shopcart.shopcart_backend.controllers;
+
+import com.shopcart.shopcart_backend.dto.ImportReportDTO;
+import com.shopcart.shopcart_backend.exception.BadRequestException;
+import com.shopcart.shopcart_backend.exception.ResourceNotFoundException;
+import com.shopcart.shopcart_backend.services.CatalogExportService;
+import com.shopcart.shopcart_backend.services.CatalogFormat;
+import com.shopcart.shopcart_backend.services.CatalogImportService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/admin/products")
+public class AdminCatalogController {
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private CatalogExportService catalogExportService;
+
+    // ✅ Bulk import: the raw request body is streamed (text/csv with a header row, or one JSON object per line)
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson", "application/jsonl", "text/plain"})
+    public ResponseEntity<ImportReportDTO> importProducts(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(required = false) String format,
+            Authentication authentication) {
+        return ResponseEntity.ok(catalogImportService.importProducts(
+                body, resolveFormat(format, contentType), authentication.getName()));
+    }
+
+    // ✅ Progress of a running (or recent) import
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportReportDTO> getImportProgress(@PathVariable String jobId) {
+        return ResponseEntity.ok(catalogImportService.getProgress(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Import job not found: " + jobId)));
+    }
+
+    // ✅ Full catalog export (or only the caller's products) in one streamed response
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean mine,
+            Authentication authentication) {
+        CatalogFormat catalogFormat = resolveFormat(format, "");
+        Long adminId = mine ? catalogExportService.adminId(authentication.getName()) : null;
+
+        StreamingResponseBody body = out -> catalogExportService.export(catalogFormat, adminId, out);
+        boolean csv = catalogFormat == CatalogFormat.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(csv ? "products.csv" : "products.ndjson")
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    private static CatalogFormat resolveFormat(String format, String contentType) {
+        String hint = (format != null ? format : contentType).toLowerCase(Locale.ROOT);
+        if (hint.contains("csv")) {
+            return CatalogFormat.CSV;
+        }
+        if (hint.contains("ndjson") || hint.contains("jsonl")) {
+            return CatalogFormat.NDJSON;
+        }
+        throw new BadRequestException("Unsupported import format, use csv or ndjson");
+    }
+}
@@ -1,7 +1,12 @@
 package com.shopcart.shopcart_backend.controllers;
 
 import com.shopcart.shopcart_backend.dto.AdminDashboardDTO;
+import com.shopcart.shopcart_backend.dto.CacheStatsDTO;
+import com.shopcart.shopcart_backend.dto.CartSweepStatsDTO;
+import com.shopcart.shopcart_backend.services.AbandonedCartSweeper;
 import com.shopcart.shopcart_backend.services.AdminDashboardService;
+import com.shopcart.shopcart_backend.services.ProductCache;
+import com.shopcart.shopcart_backend.services.ProductImageCache;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
@@ -17,6 +22,15 @@ public class AdminMetricsController {
     @Autowired
     private AdminDashboardService dashboardService;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductImageCache productImageCache;
+
+    @Autowired
+    private AbandonedCartSweeper cartSweeper;
+
     @GetMapping
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
     public AdminDashboardDTO getMetrics(Authentication authentication) {
@@ -32,4 +46,25 @@ public class AdminMetricsController {
             return dashboardService.getMetricsForAdmin(email);
         }
     }
+
+    // ✅ Product detail cache hit/miss counters
+    @GetMapping("/product-cache")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public CacheStatsDTO getProductCacheStats() {
+        return productCache.stats();
+    }
+
+    // ✅ Image hot tier (size and maxSize in bytes)
+    @GetMapping("/image-cache")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public CacheStatsDTO getImageCacheStats() {
+        return productImageCache.stats();
+    }
+
+    // ✅ Abandoned-cart sweeper: lines reclaimed and time spent
+    @GetMapping("/cart-sweeper")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public CartSweepStatsDTO getCartSweeperStats() {
+        return cartSweeper.stats();
+    }
 }
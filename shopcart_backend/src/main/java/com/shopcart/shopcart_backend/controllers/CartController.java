@@ -1,9 +1,11 @@
 package com.shopcart.shopcart_backend.controllers;
 
 import com.shopcart.shopcart_backend.dto.CartItemResponseDTO;
+import com.shopcart.shopcart_backend.dto.CartOperationDTO;
+import com.shopcart.shopcart_backend.dto.CartSummaryDTO;
 import com.shopcart.shopcart_backend.entities.Role;
 import com.shopcart.shopcart_backend.entities.User;
-import com.shopcart.shopcart_backend.repositories.UserRepository;
+import com.shopcart.shopcart_backend.security.CustomUserDetails;
 import com.shopcart.shopcart_backend.services.CartService;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,48 +23,79 @@ public class CartController {
     @Autowired
     private CartService cartService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     // ✅ Add item to cart
     @PostMapping("/add")
     public ResponseEntity<CartItemResponseDTO> addToCart(
             @RequestParam Long productId,
             @RequestParam int quantity,
             Authentication authentication) {
-        User currentUser = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User currentUser = currentUser(authentication);
 
         if (currentUser.getRole() != Role.USER) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(null); // Admin/Super Admin cannot use cart
         }
 
-        CartItemResponseDTO response = cartService.addToCart(currentUser.getEmail(), productId, quantity);
+        CartItemResponseDTO response = cartService.addToCart(currentUser.getId(), productId, quantity);
         return ResponseEntity.ok(response);
     }
 
+    // ✅ Set the quantity of a product in the cart (0 removes the line)
+    @PutMapping("/items/{productId}")
+    public ResponseEntity<CartItemResponseDTO> setQuantity(
+            @PathVariable Long productId,
+            @RequestParam int quantity,
+            Authentication authentication) {
+        User currentUser = currentUser(authentication);
+
+        if (currentUser.getRole() != Role.USER) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        }
+
+        CartItemResponseDTO response = cartService.setQuantity(currentUser.getId(), productId, quantity);
+        return response != null ? ResponseEntity.ok(response) : ResponseEntity.noContent().build();
+    }
+
+    // ✅ Apply many add/set/remove operations at once (e.g. merging a guest cart after login)
+    @PostMapping("/batch")
+    public ResponseEntity<CartSummaryDTO> applyBatch(@RequestBody List<CartOperationDTO> operations,
+                                                     Authentication authentication) {
+        User currentUser = currentUser(authentication);
+        if (currentUser.getRole() != Role.USER) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        }
+        return ResponseEntity.ok(cartService.applyBatch(currentUser.getId(), operations));
+    }
+
     // ✅ Get all cart items for current user
     @GetMapping
     public ResponseEntity<List<CartItemResponseDTO>> getUserCart(Authentication authentication) {
-        String email = authentication.getName();
-        List<CartItemResponseDTO> items = cartService.getCartItemsByUser(email);
+        List<CartItemResponseDTO> items = cartService.getCartItemsByUser(currentUser(authentication).getId());
         return ResponseEntity.ok(items);
     }
 
-    // ✅ Remove item from cart
-    @DeleteMapping("/{cartItemId}")
-    public ResponseEntity<Void> removeCartItem(@PathVariable Long cartItemId, Authentication authentication) {
-        String email = authentication.getName();
-        cartService.removeFromCart(email, cartItemId);
+    // ✅ Remove a product from the cart
+    @DeleteMapping("/{productId}")
+    public ResponseEntity<Void> removeCartItem(@PathVariable Long productId, Authentication authentication) {
+        cartService.removeFromCart(currentUser(authentication).getId(), productId);
         return ResponseEntity.noContent().build(); // 204 No Content
     }
 
+    // ✅ Cart page in one call: lines, subtotal, discount savings and item count
+    @GetMapping("/summary")
+    public ResponseEntity<CartSummaryDTO> getCartSummary(Authentication authentication) {
+        return ResponseEntity.ok(cartService.getCartSummary(currentUser(authentication).getId()));
+    }
+
     // ✅ Get total cart value
     @GetMapping("/total-value")
     public ResponseEntity<Double> getTotalCartValue(Authentication authentication) {
-        String email = authentication.getName();
-        double total = cartService.getTotalCartValue(email);
+        double total = cartService.getTotalCartValue(currentUser(authentication).getId());
         return ResponseEntity.ok(total);
     }
+
+    // the JWT filter already loaded the user, no need to look it up again
+    private static User currentUser(Authentication authentication) {
+        return ((CustomUserDetails) authentication.getPrincipal()).getUser();
+    }
 }
@@ -1,14 +1,18 @@
 package com.shopcart.shopcart_backend.controllers;
 
 import com.shopcart.shopcart_backend.entities.Category;
+import com.shopcart.shopcart_backend.services.CatalogVersions;
 import com.shopcart.shopcart_backend.services.CategoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -16,10 +20,27 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogVersions catalogVersions;
+
+    public static final String VERSION_HEADER = "X-Category-Version";
 
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest webRequest) {
+        String etag = catalogVersions.categoriesETag();
+        if (webRequest.checkNotModified(etag)) {
+            return null; // 304
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .header(VERSION_HEADER, String.valueOf(categoryService.getCategoriesVersion()))
+                .body(categoryService.getAllCategories());
+    }
+
+    // ✅ Cheap check for clients that keep a local copy of the category list
+    @GetMapping("/version")
+    public ResponseEntity<Map<String, Long>> getCategoriesVersion() {
+        return ResponseEntity.ok(Map.of("version", categoryService.getCategoriesVersion()));
     }
 
     @PreAuthorize("hasRole('SUPER_ADMIN')")
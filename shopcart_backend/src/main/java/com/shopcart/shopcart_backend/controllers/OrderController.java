@@ -9,9 +9,11 @@ import com.shopcart.shopcart_backend.entities.User;
 import com.shopcart.shopcart_backend.exception.ResourceNotFoundException;
 import com.shopcart.shopcart_backend.repositories.OrderRepository;
 import com.shopcart.shopcart_backend.repositories.UserRepository;
+import com.shopcart.shopcart_backend.services.CatalogVersions;
 import com.shopcart.shopcart_backend.services.OrderService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -20,6 +22,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -36,6 +39,9 @@ public class OrderController {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private CatalogVersions catalogVersions;
+
     // ✅ Place an order
     @PostMapping("/place")
     public ResponseEntity<OrderResponseDTO> placeOrder(@RequestBody OrderRequestDTO request,
@@ -48,16 +54,26 @@ public class OrderController {
                     .body(null); // Admin/Super Admin cannot place orders
         }
 
+        // 202: the order is PENDING until the payment gateway answers
         OrderResponseDTO response = orderService.placeOrder(currentUser.getEmail(), request);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
 
     // ✅ Get all orders for current user
     @GetMapping
-    public ResponseEntity<List<OrderResponseDTO>> getUserOrders(Authentication authentication) {
+    public ResponseEntity<List<OrderResponseDTO>> getUserOrders(Authentication authentication,
+            WebRequest webRequest) {
         String email = authentication.getName();
+        String etag = catalogVersions.ordersETag(email);
+        if (webRequest.checkNotModified(etag)) {
+            return null; // 304, nothing loaded
+        }
         List<OrderResponseDTO> orders = orderService.getOrdersByUser(email);
-        return ResponseEntity.ok(orders);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .body(orders);
     }
 
     @GetMapping("/admin")
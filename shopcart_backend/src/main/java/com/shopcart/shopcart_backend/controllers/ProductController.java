@@ -1,24 +1,41 @@
 package com.shopcart.shopcart_backend.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopcart.shopcart_backend.dto.CursorPageDTO;
+import com.shopcart.shopcart_backend.dto.PageResponseDTO;
+import com.shopcart.shopcart_backend.dto.ProductFacetsDTO;
+import com.shopcart.shopcart_backend.dto.ProductFilterDTO;
 import com.shopcart.shopcart_backend.dto.ProductRequestDTO;
 import com.shopcart.shopcart_backend.dto.ProductResponseDTO;
+import com.shopcart.shopcart_backend.dto.SuggestionDTO;
 import com.shopcart.shopcart_backend.entities.Discount;
 import com.shopcart.shopcart_backend.entities.Product;
 import com.shopcart.shopcart_backend.entities.User;
+import com.shopcart.shopcart_backend.exception.BadRequestException;
 import com.shopcart.shopcart_backend.repositories.ProductRepository;
 import com.shopcart.shopcart_backend.repositories.UserRepository;
+import com.shopcart.shopcart_backend.services.CatalogVersions;
+import com.shopcart.shopcart_backend.services.ProductFacetIndex;
 import com.shopcart.shopcart_backend.services.ProductService;
+import com.shopcart.shopcart_backend.services.ProductSuggestIndex;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -31,16 +48,28 @@ public class ProductController {
     private final ProductService productService;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final CatalogVersions catalogVersions;
+    private final ProductSuggestIndex suggestIndex;
+    private final ProductFacetIndex facetIndex;
 
     @Value("${file.upload-dir}")
     private String uploadDir;
 
     public ProductController(ProductService productService,
                              ProductRepository productRepository,
-                             UserRepository userRepository) {
+                             UserRepository userRepository,
+                             ObjectMapper objectMapper,
+                             CatalogVersions catalogVersions,
+                             ProductSuggestIndex suggestIndex,
+                             ProductFacetIndex facetIndex) {
         this.productService = productService;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.catalogVersions = catalogVersions;
+        this.suggestIndex = suggestIndex;
+        this.facetIndex = facetIndex;
     }
 
     // ✅ Add a product (Admin only)
@@ -52,33 +81,60 @@ public class ProductController {
         return new ResponseEntity<>(productService.addProduct(productDTO, imageFile), HttpStatus.CREATED);
     }
 
-// ✅ Get all products (Accessible to everyone)
-@GetMapping
-public ResponseEntity<List<ProductResponseDTO>> getAllProducts() {
-    List<ProductResponseDTO> products = productRepository.findAll()
-            .stream()
-            .map(ProductResponseDTO::from) // includes discounted price & discount info
-            .collect(Collectors.toList());
-
-    return ResponseEntity.ok(products);
-}
+    // ✅ Get products page by page (Accessible to everyone)
+    @GetMapping
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            WebRequest webRequest) {
+        String etag = catalogVersions.productListETag();
+        if (webRequest.checkNotModified(etag)) {
+            return null; // 304, nothing loaded
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(productService.getProductPage(cursor, limit));
+    }
 
+    // ✅ Stream the full catalog as one JSON array (constant memory on the server)
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.writeStartArray();
+                productService.streamAllProducts(product -> {
+                    try {
+                        generator.writeObject(product);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
 
+    // ✅ Type-ahead suggestions (served from memory, safe to call on every keystroke)
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "8") int limit) {
+        int size = Math.min(Math.max(limit, 1), ProductSuggestIndex.TOP_K);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic())
+                .body(suggestIndex.suggest(query, size));
+    }
 
     // ✅ Get products added by the logged-in admin
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/my-products")
     public ResponseEntity<List<ProductResponseDTO>> getProductsByLoggedInAdmin() {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User admin = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Admin not found"));
-
-        List<ProductResponseDTO> products = productRepository.findByAddedBy(admin)
-                .stream()
-                .map(ProductResponseDTO::from) // ✅ use your static mapper
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(productService.getProductsAddedBy(email));
     }
 
     // ✅ Get product by ID
@@ -142,13 +198,67 @@ public ResponseEntity<Void> removeDiscount(@PathVariable Long productId) {
 
 // 🟢 2. Get filtered/sorted/paginated products
     @GetMapping("/filter")
-    public List<ProductResponseDTO> getProducts(
+    public ResponseEntity<PageResponseDTO<ProductResponseDTO>> getProducts(
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) Boolean onSale,
+            @RequestParam(required = false) List<String> sort,
+            @RequestParam(required = false) String sortBy, // old single-key form, e.g. priceAsc
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest
+    ) {
+        ProductFilterDTO filter = toFilter(categoryId, search, minPrice, maxPrice, inStock, onSale);
+        List<String> sortKeys = sort != null ? sort : (sortBy != null ? List.of(sortBy) : List.of());
+
+        String etag = catalogVersions.productListETag();
+        if (webRequest.checkNotModified(etag)) {
+            return null; // 304, nothing loaded
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(productService.getProducts(filter, sortKeys, page, size));
+    }
+
+    // ✅ Facet counts for the same filters, computed from the in-memory catalog snapshot
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetsDTO> getFacets(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) Boolean onSale,
+            WebRequest webRequest
     ) {
-        return productService.getProducts(categoryId, search, sortBy, page, size);
+        ProductFilterDTO filter = toFilter(categoryId, search, minPrice, maxPrice, inStock, onSale);
+
+        String etag = facetIndex.snapshotETag();
+        if (webRequest.checkNotModified(etag)) {
+            return null; // 304
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(facetIndex.facets(filter));
+    }
+
+    private static ProductFilterDTO toFilter(Long categoryId, String search, Double minPrice, Double maxPrice,
+                                             Boolean inStock, Boolean onSale) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new BadRequestException("minPrice must not be greater than maxPrice");
+        }
+        return ProductFilterDTO.builder()
+                .categoryId(categoryId)
+                .search(search)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .inStock(inStock)
+                .onSale(onSale)
+                .build();
     }
 }
@@ -0,0 +1,120 @@
+package com.shopcart.shopcart_backend.controllers;
+
+import com.shopcart.shopcart_backend.services.ProductImageCache;
+import com.shopcart.shopcart_backend.services.ProductImageCache.CachedImage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/product-images")
+public class ProductImageController {
+
+    // Tomcat's sendfile contract: the connector streams the file itself, straight from the page cache
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // image URLs are never reused for different content, so browsers and CDNs may keep them for good
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Autowired
+    private ProductImageCache imageCache;
+
+    // ✅ Hot images from memory, everything else zero-copy from disk; Range requests get 206 from Spring
+    @GetMapping("/{*path}")
+    public ResponseEntity<Resource> getImage(@PathVariable String path,
+                                             WebRequest webRequest,
+                                             HttpServletRequest request,
+                                             HttpServletResponse response) throws IOException {
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path file = root.resolve(path.startsWith("/") ? path.substring(1) : path).normalize();
+        // dot-directories hold in-progress uploads
+        if (!file.startsWith(root) || path.contains("/.")) {
+            return ResponseEntity.notFound().build();
+        }
+
+        long size;
+        long lastModified;
+        CachedImage cached = imageCache.find(file);
+        if (cached != null) {
+            size = cached.bytes().length;
+            lastModified = cached.lastModified();
+        } else {
+            if (!Files.isRegularFile(file)) {
+                return ResponseEntity.notFound().build();
+            }
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            size = attributes.size();
+            lastModified = attributes.lastModifiedTime().toMillis();
+            if (imageCache.admits(size)) {
+                cached = imageCache.load(file, lastModified);
+            }
+        }
+
+        String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return null; // 304
+        }
+
+        MediaType contentType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+
+        if (cached != null) {
+            return ResponseEntity.ok()
+                    .contentType(contentType)
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .cacheControl(IMMUTABLE)
+                    .body(new ByteArrayResource(cached.bytes()));
+        }
+
+        boolean wholeFile = request.getHeader(HttpHeaders.RANGE) == null && !"HEAD".equals(request.getMethod());
+        if (wholeFile && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType.toString());
+            response.setContentLengthLong(size);
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE.getHeaderValue());
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return null; // the connector writes the body
+        }
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(IMMUTABLE)
+                .body(new FileSystemResource(file));
+    }
+}
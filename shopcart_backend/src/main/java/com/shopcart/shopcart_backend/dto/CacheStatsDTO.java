@@ -0,0 +1,20 @@
+package com.shopcart.shopcart_backend.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatsDTO {
+    private long size;
+    private long maxSize;
+    private long hits;
+    private long misses;
+    private long loads;
+    private long coalescedLoads; // misses that waited on another request's load
+    private long evictions;      // entries dropped to stay within maxSize
+    private long invalidations;
+    private double hitRatio;
+}
@@ -1,9 +1,6 @@
 package com.shopcart.shopcart_backend.dto;
 
 
-import com.shopcart.shopcart_backend.entities.CartItem;
-import com.shopcart.shopcart_backend.services.ProductService;
-
 import lombok.*;
 
 
@@ -13,25 +10,21 @@ import lombok.*;
 @AllArgsConstructor
 @Builder
 public class CartItemResponseDTO {
-    private Long id;
+    private Long id; // lines are unique per product, so this is the product id
     private ProductResponseDTO product;
     private Integer quantity;
     private double total;
 
-public static CartItemResponseDTO from(CartItem cartItem, ProductService productService) {
-    ProductResponseDTO productDTO = ProductResponseDTO.from(cartItem.getProduct());
-    double effectivePrice = productService.getEffectivePrice(cartItem.getProduct());
-    productDTO.setPrice(effectivePrice);
-
+public static CartItemResponseDTO of(ProductResponseDTO product, int quantity) {
+    // product price is already the effective (discounted) price
     return CartItemResponseDTO.builder()
-            .id(cartItem.getId())
-            .product(productDTO)
-            .quantity(cartItem.getQuantity())
-            .total(cartItem.getQuantity() * effectivePrice)
+            .id(product.getId())
+            .product(product)
+            .quantity(quantity)
+            .total(quantity * product.getPrice())
             .build();
 }
 
 
 
 }
-
@@ -0,0 +1,18 @@
+package com.shopcart.shopcart_backend.dto;
+
+import lombok.*;
+
+// One step of POST /api/cart/batch; steps are applied in order
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartOperationDTO {
+
+    public enum Op { ADD, SET, REMOVE }
+
+    private Op op;
+    private Long productId;
+    private Integer quantity; // ADD: units to add, SET: new quantity (0 removes), REMOVE: ignored
+}
@@ -0,0 +1,18 @@
+package com.shopcart.shopcart_backend.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartSummaryDTO {
+    private List<CartItemResponseDTO> items;
+    private int itemCount; // total units across all lines
+    private double subtotal; // at original prices
+    private double savings;  // subtotal - total, from active discounts
+    private double total;    // at current effective prices
+}
@@ -0,0 +1,20 @@
+package com.shopcart.shopcart_backend.dto;
+
+import lombok.*;
+
+import java.util.Date;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartSweepStatsDTO {
+    private long runs;
+    private long linesReclaimed;  // across all runs
+    private long totalMillis;     // time spent sweeping across all runs
+    private long lastRunLines;
+    private long lastRunMillis;
+    private Date lastRunAt;
+    private int idleDays;         // lines untouched this long are swept
+}
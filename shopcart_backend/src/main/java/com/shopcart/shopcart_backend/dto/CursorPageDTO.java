@@ -0,0 +1,19 @@
+package com.shopcart.shopcart_backend.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// Keyset page: pass nextCursor back as ?cursor= to fetch the following page
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private String nextCursor; // null when this is the last page
+    private boolean hasMore;
+    private int limit;
+    private int count;
+}
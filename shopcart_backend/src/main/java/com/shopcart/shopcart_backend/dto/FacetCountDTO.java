@@ -0,0 +1,17 @@
+package com.shopcart.shopcart_backend.dto;
+
+import lombok.*;
+
+// One facet value: a category, a price range or a yes/no flag, with how many products it would match
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetCountDTO {
+    private String value; // category id, "true"/"false", or "min-max" for price ranges ("500-" when open-ended)
+    private String label;
+    private Double min;   // price ranges only, inclusive
+    private Double max;   // price ranges only, inclusive like maxPrice (just below the next edge); null for the last range
+    private long count;
+}
@@ -0,0 +1,13 @@
+package com.shopcart.shopcart_backend.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportErrorDTO {
+    private long line; // line in the uploaded file (header is line 1 for CSV)
+    private String message;
+}
@@ -0,0 +1,25 @@
+package com.shopcart.shopcart_backend.dto;
+
+import lombok.*;
+
+import java.util.Date;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportReportDTO {
+    private String jobId;
+    private String status; // RUNNING, COMPLETED or FAILED
+    private String format;
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private int chunksCommitted;
+    private List<ImportErrorDTO> errors; // first errors only, see shopcart.import.max-errors
+    private boolean errorsTruncated;
+    private Date startedAt;
+    private Date finishedAt;
+}
@@ -0,0 +1,21 @@
+package com.shopcart.shopcart_backend.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// Offset page with totals, for result lists that show counts and page numbers
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PageResponseDTO<T> {
+    private List<T> items;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private boolean hasNext;
+    private List<String> sort; // applied sort keys, e.g. ["price,asc", "id,asc"]
+}
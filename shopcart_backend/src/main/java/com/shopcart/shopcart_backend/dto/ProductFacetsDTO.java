@@ -0,0 +1,21 @@
+package com.shopcart.shopcart_backend.dto;
+
+import lombok.*;
+
+import java.util.Date;
+import java.util.List;
+
+// Counts for each facet ignore that facet's own selection, so the other values stay selectable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFacetsDTO {
+    private long total; // products matching every selected filter
+    private List<FacetCountDTO> categories;
+    private List<FacetCountDTO> priceRanges; // by effective (discounted) price
+    private List<FacetCountDTO> onSale;
+    private List<FacetCountDTO> inStock;
+    private Date snapshotTime;
+}
@@ -0,0 +1,18 @@
+package com.shopcart.shopcart_backend.dto;
+
+import lombok.*;
+
+// Filters accepted by /api/products/filter; null means "not filtered"
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFilterDTO {
+    private Long categoryId;
+    private String search;
+    private Double minPrice; // effective (discounted) price, inclusive
+    private Double maxPrice; // effective (discounted) price, inclusive
+    private Boolean inStock;
+    private Boolean onSale;
+}
@@ -1,17 +1,13 @@
 package com.shopcart.shopcart_backend.dto;
 
 import com.shopcart.shopcart_backend.entities.Product;
-import com.shopcart.shopcart_backend.entities.Discount;
-import com.shopcart.shopcart_backend.entities.Category;
 import lombok.*;
 
-import java.util.Date;
-
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class ProductResponseDTO {
     private Long id;
     private String name;
@@ -19,44 +15,20 @@ public class ProductResponseDTO {
     private double price; // effective (after discount)
     private double originalPrice; // actual/original
     private int stock;
-    private String imageUrl;
+    private int availableStock; // stock not held by carts (see StockReservationLedger)
+    private String imageUrl; // original upload
+    private String thumbnailUrl; // ✅ variants fall back to the original until they are generated
+    private String cardImageUrl;
+    private String detailImageUrl;
+    private String webpImageUrl; // null when no WebP variant exists
     private DiscountDTO discount;
-    private Category category; // ✅ include category info
-
-    public static ProductResponseDTO from(Product product) {
-        double effectivePrice;
-        Discount activeDiscount = null;
-        Date now = new Date();
-
-        // ✅ find valid discount if available
-        activeDiscount = product.getDiscounts() != null
-                ? product.getDiscounts().stream()
-                    .filter(Discount::isActive)
-                    .filter(d -> {
-                        Date start = d.getStartDate();
-                        Date end = d.getEndDate();
-                        boolean withinStart = (start == null) || !now.before(start);
-                        boolean withinEnd = (end == null) || !now.after(end);
-                        return withinStart && withinEnd;
-                    })
-                    .findFirst()
-                    .orElse(null)
-                : null;
+    private CategoryDTO category; // ✅ include category info
 
-        if (activeDiscount != null) {
-            effectivePrice = product.getPrice() - (product.getPrice() * activeDiscount.getPercentage() / 100);
-        } else {
-            effectivePrice = product.getPrice();
-        }
-
-        DiscountDTO discountDTO = null;
-        if (activeDiscount != null) {
-            discountDTO = DiscountDTO.builder()
-                    .percentage(activeDiscount.getPercentage())
-                    .endDate(activeDiscount.getEndDate())
-                    .active(activeDiscount.isActive())
-                    .build();
-        }
+    // ✅ Build from the product's active discount (null when none), as resolved by DiscountScheduler
+    public static ProductResponseDTO from(Product product, DiscountDTO activeDiscount) {
+        double effectivePrice = activeDiscount != null
+                ? product.getPrice() - (product.getPrice() * activeDiscount.getPercentage() / 100)
+                : product.getPrice();
 
         // ✅ build response
         return ProductResponseDTO.builder()
@@ -65,10 +37,18 @@ public class ProductResponseDTO {
                 .description(product.getDescription())
                 .stock(product.getStock())
                 .imageUrl(product.getImageUrl())
+                .thumbnailUrl(orOriginal(product.getThumbnailUrl(), product))
+                .cardImageUrl(orOriginal(product.getCardImageUrl(), product))
+                .detailImageUrl(orOriginal(product.getDetailImageUrl(), product))
+                .webpImageUrl(product.getWebpImageUrl())
                 .price(effectivePrice)
                 .originalPrice(product.getPrice())
-                .discount(discountDTO)
-                .category(product.getCategory()) // ✅ now included
+                .discount(activeDiscount)
+                .category(CategoryDTO.from(product.getCategory())) // ✅ now included
                 .build();
     }
+
+    private static String orOriginal(String variantUrl, Product product) {
+        return variantUrl != null ? variantUrl : product.getImageUrl();
+    }
 }
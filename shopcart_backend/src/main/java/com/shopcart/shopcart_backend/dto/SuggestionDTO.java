@@ -0,0 +1,15 @@
+package com.shopcart.shopcart_backend.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SuggestionDTO {
+    private String type; // PRODUCT or CATEGORY
+    private Long id;
+    private String text;
+    private Long categoryId; // category of a product suggestion
+}
@@ -1,5 +1,6 @@
 package com.shopcart.shopcart_backend.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import java.util.Date;
@@ -27,7 +28,8 @@ public class Discount {
 
     private boolean active; // Admin can toggle it ON/OFF
 
-    @ManyToOne
+    @JsonIgnore // avoids Product -> discounts -> product recursion when a discount is returned
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
 }
@@ -20,6 +20,10 @@ public class Order extends Auditable{
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // ✅ Optimistic locking; item changes bump it too, so the order is one unit
+    @Version
+    private Long version;
+
 
     @Builder.Default
     @Temporal(TemporalType.TIMESTAMP)
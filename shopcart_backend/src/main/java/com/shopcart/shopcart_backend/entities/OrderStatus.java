@@ -1,8 +1,10 @@
 package com.shopcart.shopcart_backend.entities;
 
 public enum OrderStatus {
+    PENDING,   // created, waiting for the payment result
     PLACED,
     SHIPPED,
     DELIVERED,
-    CANCELLED
+    CANCELLED,
+    FAILED     // payment declined or timed out; stock was returned
 }
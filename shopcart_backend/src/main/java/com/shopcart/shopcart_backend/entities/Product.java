@@ -2,6 +2,7 @@ package com.shopcart.shopcart_backend.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,6 +19,10 @@ public class Product extends Auditable {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // ✅ Optimistic locking: concurrent edits fail instead of overwriting each other
+    @Version
+    private Long version;
+
     private String name;
     private String description;
 
@@ -25,15 +30,23 @@ public class Product extends Auditable {
     private int stock;
     private String imageUrl;
 
-    @ManyToOne
+    // resized variants, filled in by ImageVariantService after the upload
+    private String thumbnailUrl;
+    private String cardImageUrl;
+    private String detailImageUrl;
+    private String webpImageUrl;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "added_by_admin_id")
     private User addedBy;
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @Builder.Default
     private List<Discount> discounts = new ArrayList<>();
 
-    @ManyToOne
+    // list queries fetch this through an entity graph instead of one select per row
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
@@ -0,0 +1,33 @@
+package com.shopcart.shopcart_backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+// One row per distinct image content; products reference it through its URL
+@Entity
+@Table(name = "stored_images")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoredImage extends Auditable {
+
+    // hex SHA-256 of the file content
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(length = 8)
+    private String extension;
+
+    private long size;
+
+    private int refCount;
+
+    // when refCount last dropped to zero; the collector waits a grace period after this
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date releasedAt;
+}
@@ -1,12 +1,37 @@
 package com.shopcart.shopcart_backend.repositories;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.shopcart.shopcart_backend.entities.CartItem;
 import com.shopcart.shopcart_backend.entities.User;
 
+// Cart writes go through CartStore; rows are written in batches by CartLineWriter
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     List<CartItem> findByUser(User user);
-}
\ No newline at end of file
+
+    // ✅ A user's cart as (product, quantity) pairs, oldest line first
+    @Query("SELECT c.product.id AS productId, c.quantity AS quantity FROM CartItem c WHERE c.user.id = :userId ORDER BY c.id")
+    List<CartLineRow> findLinesByUserId(@Param("userId") Long userId);
+
+    // ✅ Remove ordered lines inside the order transaction
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.user.id = :userId AND c.product.id IN :productIds")
+    int deleteLines(@Param("userId") Long userId, @Param("productIds") Collection<Long> productIds);
+
+    // ✅ Abandoned-cart sweep: oldest idle lines first, read off idx_cart_items_updated_at
+    @Query("SELECT c.id AS id, c.user.id AS userId FROM CartItem c WHERE c.updatedAt < :cutoff ORDER BY c.updatedAt, c.id")
+    List<IdleCartLineRow> findIdleLines(@Param("cutoff") Date cutoff, Pageable pageable);
+
+    // lines written again since they were selected are kept
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.id IN :ids AND c.updatedAt < :cutoff")
+    int deleteIdleLines(@Param("ids") Collection<Long> ids, @Param("cutoff") Date cutoff);
+}
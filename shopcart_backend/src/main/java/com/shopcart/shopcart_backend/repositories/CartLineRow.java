@@ -0,0 +1,7 @@
+package com.shopcart.shopcart_backend.repositories;
+
+// Projection used to load a cart into CartStore without loading entities
+public interface CartLineRow {
+    Long getProductId();
+    int getQuantity();
+}
@@ -2,8 +2,10 @@ package com.shopcart.shopcart_backend.repositories;
 
 import com.shopcart.shopcart_backend.entities.Discount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
 import java.util.Optional;
@@ -23,11 +25,21 @@ public interface DiscountRepository extends JpaRepository<Discount, Long> {
             @Param("currentDate") Date currentDate
     );
 
-    // ✅ Optional: find all active discounts
+    // ✅ Find all current and upcoming discounts (loaded into DiscountScheduler at startup)
     @Query("""
         SELECT d FROM Discount d
         WHERE d.active = true
           AND (d.endDate IS NULL OR d.endDate >= :currentDate)
     """)
     java.util.List<Discount> findAllActiveDiscounts(@Param("currentDate") Date currentDate);
+
+    // ✅ Bulk-deactivate every discount whose end date has passed
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Discount d SET d.active = false
+        WHERE d.active = true
+          AND d.endDate < :currentDate
+    """)
+    int deactivateExpired(@Param("currentDate") Date currentDate);
 }
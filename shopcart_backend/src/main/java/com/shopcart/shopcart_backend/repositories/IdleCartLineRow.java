@@ -0,0 +1,7 @@
+package com.shopcart.shopcart_backend.repositories;
+
+// Projection used by AbandonedCartSweeper to find idle lines and whose cart they belong to
+public interface IdleCartLineRow {
+    Long getId();
+    Long getUserId();
+}
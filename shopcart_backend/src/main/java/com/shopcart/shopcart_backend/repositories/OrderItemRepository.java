@@ -3,10 +3,19 @@ package com.shopcart.shopcart_backend.repositories;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.shopcart.shopcart_backend.entities.OrderItem;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
 
+    // ✅ Units sold per product (cancelled items excluded)
+    @Query("""
+        SELECT i.product.id AS productId, SUM(i.quantity) AS quantity
+        FROM OrderItem i
+        WHERE i.status <> com.shopcart.shopcart_backend.entities.OrderStatus.CANCELLED
+        GROUP BY i.product.id
+    """)
+    List<ProductSales> sumQuantityByProduct();
 }
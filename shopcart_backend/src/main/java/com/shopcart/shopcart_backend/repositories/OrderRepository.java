@@ -7,6 +7,7 @@ import com.shopcart.shopcart_backend.entities.User;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Date;
 import java.util.List;
 
 @Repository
@@ -19,6 +20,10 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // ✅ Count total orders by status
     long countByStatus(OrderStatus status);
 
+    // ✅ Orders stuck in a status, e.g. PENDING payments that never got an answer
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.createdAt < :cutoff")
+    List<Long> findIdsByStatusAndCreatedAtBefore(@Param("status") OrderStatus status, @Param("cutoff") Date cutoff);
+
     // ✅ Fetch all orders containing products added by a specific admin
     @Query("""
         SELECT DISTINCT o 
@@ -0,0 +1,9 @@
+package com.shopcart.shopcart_backend.repositories;
+
+// Projection used to build the columnar facet snapshot without loading entities
+public interface ProductFacetRow {
+    Long getId();
+    Long getCategoryId();
+    double getPrice();
+    int getStock();
+}
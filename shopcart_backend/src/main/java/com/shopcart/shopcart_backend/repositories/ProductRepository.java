@@ -3,18 +3,33 @@ package com.shopcart.shopcart_backend.repositories;
 import com.shopcart.shopcart_backend.entities.Order;
 import com.shopcart.shopcart_backend.entities.Product;
 import com.shopcart.shopcart_backend.entities.User;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import org.springframework.data.domain.Page;
 
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+import jakarta.persistence.QueryHint;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+    @EntityGraph(attributePaths = "category")
     List<Product> findByAddedBy(User addedBy);
 
     List<Product> findByAddedByEmail(String email);
@@ -25,7 +40,67 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Order> findOrdersByAdminProducts(@Param("adminId") Long adminId);
 
 
-     Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
-    Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
-    Page<Product> findByCategoryIdAndNameContainingIgnoreCase(Long categoryId, String name, Pageable pageable);
+    // ✅ Read-model queries: category is fetched in the same select as the products
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findWithCategoryById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Page<Product> findAll(Pageable pageable);
+
+    // ✅ Filter engine (see ProductSpecifications): one select with category plus the count
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Page<Product> findAll(Specification<Product> spec, Pageable pageable);
+
+    // ✅ Search results: ids come ranked from ProductSearchIndex
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByIdIn(Collection<Long> ids);
+
+    // ✅ Keyset pagination: next page starts strictly after the last id seen
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // ✅ Forward-only cursor over the whole catalog (fetch-size bounded, read-only)
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category ORDER BY p.id")
+    Stream<Product> streamAllOrderById();
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.addedBy.id = :adminId ORDER BY p.id")
+    Stream<Product> streamByAddedByOrderById(@Param("adminId") Long adminId);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, p.category.id AS categoryId FROM Product p")
+    Stream<ProductSearchRow> streamSearchRows();
+
+    // ordered by id, so the facet snapshot can look rows up by binary search
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.category.id AS categoryId, p.price AS price, p.stock AS stock FROM Product p ORDER BY p.id")
+    Stream<ProductFacetRow> streamFacetRows();
+
+    // ✅ Record image variants, unless the image was replaced while they were being built
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.thumbnailUrl = :thumbnailUrl, p.cardImageUrl = :cardImageUrl, " +
+           "p.detailImageUrl = :detailImageUrl, p.webpImageUrl = :webpImageUrl, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.imageUrl = :imageUrl")
+    int updateImageVariants(@Param("id") Long id,
+                            @Param("imageUrl") String imageUrl,
+                            @Param("thumbnailUrl") String thumbnailUrl,
+                            @Param("cardImageUrl") String cardImageUrl,
+                            @Param("detailImageUrl") String detailImageUrl,
+                            @Param("webpImageUrl") String webpImageUrl);
 }
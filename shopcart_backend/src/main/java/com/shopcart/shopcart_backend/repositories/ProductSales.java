@@ -0,0 +1,7 @@
+package com.shopcart.shopcart_backend.repositories;
+
+// Units sold per product, used to rank suggestions by popularity
+public interface ProductSales {
+    Long getProductId();
+    Long getQuantity();
+}
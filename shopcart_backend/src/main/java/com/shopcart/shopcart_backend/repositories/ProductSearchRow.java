@@ -0,0 +1,9 @@
+package com.shopcart.shopcart_backend.repositories;
+
+// Projection used to (re)build the in-memory search index without loading entities
+public interface ProductSearchRow {
+    Long getId();
+    String getName();
+    String getDescription();
+    Long getCategoryId();
+}
@@ -0,0 +1,73 @@
+package com.shopcart.shopcart_backend.repositories;
+
+import com.shopcart.shopcart_backend.entities.Discount;
+import com.shopcart.shopcart_backend.entities.Product;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.Date;
+
+// Composable product filters for /api/products/filter; each one maps to a single indexed column or EXISTS
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> inCategory(Long categoryId) {
+        return (root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId);
+    }
+
+    // effective price, after the active discount; ProductFacetIndex buckets the same value
+    public static Specification<Product> priceAtLeast(double minPrice, Date now) {
+        return (root, query, cb) -> cb.ge(effectivePrice(root, query, cb, now), minPrice);
+    }
+
+    public static Specification<Product> priceAtMost(double maxPrice, Date now) {
+        return (root, query, cb) -> cb.le(effectivePrice(root, query, cb, now), maxPrice);
+    }
+
+    public static Specification<Product> inStock(boolean inStock) {
+        return (root, query, cb) -> inStock
+                ? cb.greaterThan(root.get("stock"), 0)
+                : cb.lessThanOrEqualTo(root.get("stock"), 0);
+    }
+
+    // ✅ Same window as DiscountRepository.findActiveDiscountForProduct, as a correlated EXISTS
+    public static Specification<Product> onSale(boolean onSale, Date now) {
+        return (root, query, cb) -> {
+            Subquery<Long> discount = query.subquery(Long.class);
+            Root<Discount> d = discount.from(Discount.class);
+            discount.select(d.get("id")).where(activeFor(root, d, cb, now));
+            return onSale ? cb.exists(discount) : cb.not(cb.exists(discount));
+        };
+    }
+
+    // price * (1 - percentage / 100), the same formula as DiscountScheduler.applyDiscount
+    private static Expression<Number> effectivePrice(Root<Product> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                                     Date now) {
+        Subquery<Double> percentage = query.subquery(Double.class);
+        Root<Discount> d = percentage.from(Discount.class);
+        percentage.select(cb.max(d.<Double>get("percentage"))).where(activeFor(root, d, cb, now));
+        Expression<Number> kept = cb.diff(1.0, cb.quot(cb.coalesce(percentage, 0.0), 100.0));
+        return cb.prod(root.<Number>get("price"), kept);
+    }
+
+    private static Predicate[] activeFor(Root<Product> product, Root<Discount> d, CriteriaBuilder cb, Date now) {
+        return new Predicate[]{
+                cb.equal(d.get("product"), product),
+                cb.isTrue(d.get("active")),
+                cb.or(cb.isNull(d.get("startDate")), cb.lessThanOrEqualTo(d.get("startDate"), now)),
+                cb.or(cb.isNull(d.get("endDate")), cb.greaterThanOrEqualTo(d.get("endDate"), now))};
+    }
+
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+}
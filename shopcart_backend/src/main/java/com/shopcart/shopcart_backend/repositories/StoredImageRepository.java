@@ -0,0 +1,40 @@
+package com.shopcart.shopcart_backend.repositories;
+
+import com.shopcart.shopcart_backend.entities.StoredImage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+public interface StoredImageRepository extends JpaRepository<StoredImage, String> {
+
+    // ✅ Reference counting is done in SQL so concurrent uploads never lose an increment
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredImage s SET s.refCount = s.refCount + 1, s.releasedAt = NULL WHERE s.hash = :hash")
+    int acquire(@Param("hash") String hash);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE StoredImage s SET s.refCount = s.refCount - 1,
+               s.releasedAt = CASE WHEN s.refCount <= 1 THEN :now ELSE s.releasedAt END
+        WHERE s.hash = :hash AND s.refCount > 0
+    """)
+    int release(@Param("hash") String hash, @Param("now") Date now);
+
+    // ✅ Garbage candidates: unreferenced since before the cutoff
+    @Query("SELECT s FROM StoredImage s WHERE s.refCount <= 0 AND s.releasedAt < :cutoff ORDER BY s.releasedAt")
+    List<StoredImage> findUnreferencedSince(@Param("cutoff") Date cutoff, Pageable pageable);
+
+    // only succeeds if nobody re-acquired the image since it was selected
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StoredImage s WHERE s.hash = :hash AND s.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
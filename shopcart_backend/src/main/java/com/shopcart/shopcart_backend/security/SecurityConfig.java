@@ -4,6 +4,7 @@ package com.shopcart.shopcart_backend.security;
 import static org.springframework.security.config.Customizer.withDefaults; 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.*;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -57,6 +58,7 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/products/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/categories/**").permitAll() // ✅ Shop page category filter
                 .requestMatchers("/product-images/**").permitAll()
                 .requestMatchers("/api/orders/**").authenticated()
                 .anyRequest().authenticated())
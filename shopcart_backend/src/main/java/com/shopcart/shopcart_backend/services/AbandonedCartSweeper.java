@@ -0,0 +1,108 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.dto.CartSweepStatsDTO;
+import com.shopcart.shopcart_backend.repositories.CartItemRepository;
+import com.shopcart.shopcart_backend.repositories.IdleCartLineRow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes cart lines nobody has changed for {@code shopcart.carts.idle-days}. Each run walks the
+ * idle lines oldest first through idx_cart_items_updated_at, one bounded batch per transaction,
+ * and stops after {@code shopcart.carts.sweep-max-batches} so a large backlog is spread over
+ * several runs instead of holding locks for long.
+ */
+@Component
+public class AbandonedCartSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbandonedCartSweeper.class);
+
+    private final CartItemRepository cartItemRepository;
+    private final CartStore cartStore;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${shopcart.carts.idle-days:30}")
+    private int idleDays;
+
+    @Value("${shopcart.carts.sweep-batch-size:500}")
+    private int batchSize;
+
+    @Value("${shopcart.carts.sweep-max-batches:200}")
+    private int maxBatches;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder linesReclaimed = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+    private volatile long lastRunLines;
+    private volatile long lastRunMillis;
+    private volatile Date lastRunAt;
+
+    public AbandonedCartSweeper(CartItemRepository cartItemRepository, CartStore cartStore,
+                                PlatformTransactionManager transactionManager) {
+        this.cartItemRepository = cartItemRepository;
+        this.cartStore = cartStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // ✅ Background compaction of abandoned carts
+    @Scheduled(fixedDelayString = "${shopcart.carts.sweep-interval-ms:3600000}",
+               initialDelayString = "${shopcart.carts.sweep-interval-ms:3600000}")
+    public void sweep() {
+        long started = System.nanoTime();
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(idleDays));
+        Set<Long> users = new HashSet<>();
+        long reclaimed = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<IdleCartLineRow> lines = cartItemRepository.findIdleLines(cutoff, PageRequest.of(0, batchSize));
+            if (lines.isEmpty()) break;
+
+            List<Long> ids = lines.stream().map(IdleCartLineRow::getId).collect(Collectors.toList());
+            Integer deleted = transactionTemplate.execute(status -> cartItemRepository.deleteIdleLines(ids, cutoff));
+            reclaimed += deleted != null ? deleted : 0;
+            lines.forEach(line -> users.add(line.getUserId()));
+            if (lines.size() < batchSize) break;
+        }
+
+        // carts held in memory must not keep or write back what was deleted
+        users.forEach(cartStore::reload);
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        runs.increment();
+        linesReclaimed.add(reclaimed);
+        totalMillis.add(millis);
+        lastRunLines = reclaimed;
+        lastRunMillis = millis;
+        lastRunAt = new Date();
+        if (reclaimed > 0) {
+            logger.info("Abandoned-cart sweep deleted {} lines from {} carts in {} ms", reclaimed, users.size(), millis);
+        }
+    }
+
+    public CartSweepStatsDTO stats() {
+        return CartSweepStatsDTO.builder()
+                .runs(runs.sum())
+                .linesReclaimed(linesReclaimed.sum())
+                .totalMillis(totalMillis.sum())
+                .lastRunLines(lastRunLines)
+                .lastRunMillis(lastRunMillis)
+                .lastRunAt(lastRunAt)
+                .idleDays(idleDays)
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.shopcart.shopcart_backend.services;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Writes final cart line quantities to cart_items as JDBC batches (upsert, or delete for 0)
+@Component
+class CartLineWriter {
+
+    // cart_items has a unique (user_id, product_id) key, so each line is one row. Quantities are
+    // absolute: the stores compute them under a per-cart lock, and set/remove must overwrite
+    private static final String SET_LINE_SQL = """
+        INSERT INTO cart_items (user_id, product_id, quantity, created_at, updated_at) VALUES (?, ?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE quantity = ?, updated_at = ?
+    """;
+    private static final String DELETE_LINE_SQL = "DELETE FROM cart_items WHERE user_id = ? AND product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    CartLineWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // userId -> (productId -> quantity)
+    void write(Map<Long, Map<Long, Integer>> linesByUser) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        linesByUser.forEach((userId, lines) -> lines.forEach((productId, quantity) -> {
+            if (quantity > 0) {
+                upserts.add(new Object[]{userId, productId, quantity, now, now, quantity, now});
+            } else {
+                deletes.add(new Object[]{userId, productId});
+            }
+        }));
+        if (!upserts.isEmpty()) jdbcTemplate.batchUpdate(SET_LINE_SQL, upserts);
+        if (!deletes.isEmpty()) jdbcTemplate.batchUpdate(DELETE_LINE_SQL, deletes);
+    }
+
+    // lines whose quantity differs between two carts; removed lines map to 0
+    static Map<Long, Integer> changes(Map<Long, Integer> before, Map<Long, Integer> after) {
+        Set<Long> productIds = new HashSet<>(before.keySet());
+        productIds.addAll(after.keySet());
+        Map<Long, Integer> changes = new LinkedHashMap<>();
+        for (Long productId : productIds) {
+            Integer quantity = after.get(productId);
+            if (!Objects.equals(before.get(productId), quantity)) {
+                changes.put(productId, quantity != null ? quantity : 0);
+            }
+        }
+        return changes;
+    }
+}
@@ -1,13 +1,18 @@
 package com.shopcart.shopcart_backend.services;
 
 import com.shopcart.shopcart_backend.dto.CartItemResponseDTO;
+import com.shopcart.shopcart_backend.dto.CartOperationDTO;
+import com.shopcart.shopcart_backend.dto.CartSummaryDTO;
 
 import java.util.List;
 
+// Carts are keyed by user id and stored through CartStore
 public interface CartService {
-    CartItemResponseDTO addToCart(String email, Long productId, int quantity);
-    List<CartItemResponseDTO> getCartItemsByUser(String email);
-    void removeFromCart(String email, Long cartItemId);
-    double getTotalCartValue(String email);
+    CartItemResponseDTO addToCart(Long userId, Long productId, int quantity);
+    CartItemResponseDTO setQuantity(Long userId, Long productId, int quantity); // null when the line was removed
+    List<CartItemResponseDTO> getCartItemsByUser(Long userId);
+    void removeFromCart(Long userId, Long productId);
+    double getTotalCartValue(Long userId);
+    CartSummaryDTO getCartSummary(Long userId); // lines and totals from one read of the cart
+    CartSummaryDTO applyBatch(Long userId, List<CartOperationDTO> operations);
 }
-
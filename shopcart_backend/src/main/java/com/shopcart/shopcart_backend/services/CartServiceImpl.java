@@ -1,96 +1,183 @@
 package com.shopcart.shopcart_backend.services;
 
 import com.shopcart.shopcart_backend.dto.CartItemResponseDTO;
+import com.shopcart.shopcart_backend.dto.CartOperationDTO;
+import com.shopcart.shopcart_backend.dto.CartSummaryDTO;
 import com.shopcart.shopcart_backend.dto.ProductResponseDTO;
-import com.shopcart.shopcart_backend.entities.*;
 import com.shopcart.shopcart_backend.exception.BadRequestException;
 import com.shopcart.shopcart_backend.exception.ResourceNotFoundException;
-import com.shopcart.shopcart_backend.repositories.*;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 
 @Service
 public class CartServiceImpl implements CartService {
 
-    @Autowired private UserRepository userRepository;
-    @Autowired private ProductRepository productRepository;
-    @Autowired private CartItemRepository cartItemRepository;
-    @Autowired private DiscountRepository discountRepository;  // ✅ You missed this
+    private static final int MAX_BATCH_OPERATIONS = 200;
+
+    @Autowired private CartStore cartStore;
     @Autowired private ProductService productService;
-@Override
-        public CartItemResponseDTO addToCart(String email, Long productId, int quantity) {
+    @Autowired private StockReservationLedger reservationLedger;
+
+    // ✅ Repeated adds merge into the existing line; the whole line is held in stock
+    @Override
+    public CartItemResponseDTO addToCart(Long userId, Long productId, int quantity) {
         if (quantity <= 0) {
             throw new BadRequestException("Quantity must be at least 1");
         }
+        ProductResponseDTO product = productService.getProductById(productId);
+
+        Map<Long, Integer> cart = cartStore.update(userId, lines -> {
+            int updated = lines.getOrDefault(productId, 0) + quantity;
+            reserve(userId, product, updated);
+            lines.put(productId, updated);
+        });
+        return CartItemResponseDTO.of(product, cart.get(productId));
+    }
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
-
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productId));
-
-        if (product.getStock() < quantity) {
-            throw new BadRequestException("Not enough stock for product: " + product.getName());
+    // ✅ Replace the quantity of a line (0 removes it)
+    @Override
+    public CartItemResponseDTO setQuantity(Long userId, Long productId, int quantity) {
+        if (quantity < 0) {
+            throw new BadRequestException("Quantity cannot be negative");
         }
+        ProductResponseDTO product = productService.getProductById(productId);
 
-        CartItem cartItem = CartItem.builder()
-                .user(user)
-                .product(product)
-                .quantity(quantity)
-                .build();
-
-        CartItem savedItem = cartItemRepository.save(cartItem);
+        cartStore.update(userId, lines -> {
+            reserve(userId, product, quantity);
+            lines.put(productId, quantity);
+        });
+        return quantity > 0 ? CartItemResponseDTO.of(product, quantity) : null;
+    }
 
-        // ✅ Pass productService to correctly calculate effective price
-        return CartItemResponseDTO.from(savedItem, productService);
+    @Override
+    public List<CartItemResponseDTO> getCartItemsByUser(Long userId) {
+        return toItems(cartStore.lines(userId));
     }
 
-@Override
-public List<CartItemResponseDTO> getCartItemsByUser(String email) {
-    User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+    @Override
+    public void removeFromCart(Long userId, Long productId) {
+        cartStore.update(userId, lines -> {
+            if (lines.remove(productId) == null) {
+                throw new ResourceNotFoundException("Product " + productId + " is not in the cart");
+            }
+            reservationLedger.release(userId, List.of(productId));
+        });
+    }
 
-    return cartItemRepository.findByUser(user).stream()
-            .map(cartItem -> CartItemResponseDTO.from(cartItem, productService)) // ✅ use helper
-            .collect(Collectors.toList());
-}
+    @Override
+    public double getTotalCartValue(Long userId) {
+        return toItems(cartStore.lines(userId)).stream()
+                .mapToDouble(CartItemResponseDTO::getTotal)
+                .sum();
+    }
 
+    // ✅ Lines, subtotal, savings and item count from one cart read; each price is computed once
+    @Override
+    public CartSummaryDTO getCartSummary(Long userId) {
+        return toSummary(toItems(cartStore.lines(userId)));
+    }
 
+    // ✅ Many cart changes applied atomically: products resolved at once, then one store update
     @Override
-    public void removeFromCart(String email, Long cartItemId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+    public CartSummaryDTO applyBatch(Long userId, List<CartOperationDTO> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new BadRequestException("No cart operations given");
+        }
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new BadRequestException("At most " + MAX_BATCH_OPERATIONS + " cart operations per request");
+        }
 
-        CartItem item = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart item not found with ID: " + cartItemId));
+        // net effect per product, in request order: SET/REMOVE replace, ADD accumulates on top
+        Map<Long, LineChange> changes = new LinkedHashMap<>();
+        for (CartOperationDTO operation : operations) {
+            if (operation.getOp() == null || operation.getProductId() == null) {
+                throw new BadRequestException("Each cart operation needs an op and a productId");
+            }
+            int quantity = operation.getQuantity() != null ? operation.getQuantity() : 0;
+            LineChange change = changes.getOrDefault(operation.getProductId(), LineChange.NONE);
+            changes.put(operation.getProductId(), switch (operation.getOp()) {
+                case ADD -> {
+                    if (quantity <= 0) throw new BadRequestException("Quantity must be at least 1");
+                    yield change.plus(quantity);
+                }
+                case SET -> {
+                    if (quantity < 0) throw new BadRequestException("Quantity cannot be negative");
+                    yield new LineChange(true, quantity);
+                }
+                case REMOVE -> new LineChange(true, 0);
+            });
+        }
 
-        if (!item.getUser().getId().equals(user.getId())) {
-            throw new BadRequestException("This cart item doesn't belong to the logged-in user");
+        Map<Long, ProductResponseDTO> products = productService.getProductsByIds(changes.keySet());
+        for (Long productId : changes.keySet()) {
+            if (!products.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product not found with ID: " + productId);
+            }
         }
 
-        cartItemRepository.delete(item);
+        Map<Long, Integer> stock = new HashMap<>();
+        Map<Long, String> names = new HashMap<>();
+        products.forEach((productId, product) -> {
+            stock.put(productId, product.getStock());
+            names.put(productId, product.getName());
+        });
+
+        Map<Long, Integer> cart = cartStore.update(userId, lines -> {
+            Map<Long, Integer> updated = new LinkedHashMap<>();
+            changes.forEach((productId, change) -> updated.put(productId,
+                    change.replace() ? change.quantity() : lines.getOrDefault(productId, 0) + change.quantity()));
+            // all holds or none, so a rejected batch leaves cart and holds as they were
+            reservationLedger.reserveAll(userId, updated, stock, names);
+            lines.putAll(updated);
+        });
+        return toSummary(toItems(cart));
     }
 
-   @Override
-public double getTotalCartValue(String email) {
-    User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+    private void reserve(Long userId, ProductResponseDTO product, int quantity) {
+        reservationLedger.reserve(userId, product.getId(), quantity, product.getStock(), product.getName());
+    }
 
-    Date now = new Date();
+    // lines of products deleted since they were added are left out
+    private List<CartItemResponseDTO> toItems(Map<Long, Integer> lines) {
+        Map<Long, ProductResponseDTO> products = productService.getProductsByIds(lines.keySet());
+        return lines.entrySet().stream()
+                .filter(line -> products.containsKey(line.getKey()))
+                .map(line -> CartItemResponseDTO.of(products.get(line.getKey()), line.getValue()))
+                .collect(Collectors.toList());
+    }
 
-    return cartItemRepository.findByUser(user).stream()
-            .mapToDouble(item -> {
-                double effectivePrice = productService.getEffectivePrice(item.getProduct());
-                return effectivePrice * item.getQuantity();
-            })
-            .sum();
-}
+    private static CartSummaryDTO toSummary(List<CartItemResponseDTO> items) {
+        int itemCount = 0;
+        double subtotal = 0;
+        double total = 0;
+        for (CartItemResponseDTO item : items) {
+            itemCount += item.getQuantity();
+            subtotal += item.getQuantity() * item.getProduct().getOriginalPrice();
+            total += item.getTotal();
+        }
+        return CartSummaryDTO.builder()
+                .items(items)
+                .itemCount(itemCount)
+                .subtotal(subtotal)
+                .savings(subtotal - total)
+                .total(total)
+                .build();
+    }
 
+    // replace == false: add quantity to whatever is in the cart
+    private record LineChange(boolean replace, int quantity) {
+        static final LineChange NONE = new LineChange(false, 0);
+
+        LineChange plus(int added) {
+            return new LineChange(replace, quantity + added);
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package com.shopcart.shopcart_backend.services;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Storage behind CartService. A cart is an ordered map of product id to quantity.
+ * The implementation is picked with {@code shopcart.cart.store}: {@code memory} (default,
+ * {@link WriteBehindCartStore}) or {@code database} ({@link DatabaseCartStore}).
+ */
+public interface CartStore {
+
+    // snapshot of the user's cart, in the order lines were added
+    Map<Long, Integer> lines(Long userId);
+
+    /**
+     * Applies a change atomically for this user and returns the resulting cart.
+     * The mutation gets a working copy; quantities of 0 or less remove the line. If it throws,
+     * nothing is changed.
+     */
+    Map<Long, Integer> update(Long userId, Consumer<Map<Long, Integer>> mutation);
+
+    // makes pending changes durable
+    default void flush() {
+    }
+
+    // called after rows of this user's cart were deleted behind the store's back
+    default void reload(Long userId) {
+    }
+}
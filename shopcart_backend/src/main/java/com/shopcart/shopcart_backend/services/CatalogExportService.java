@@ -0,0 +1,100 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopcart.shopcart_backend.dto.ProductResponseDTO;
+import com.shopcart.shopcart_backend.exception.ResourceNotFoundException;
+import com.shopcart.shopcart_backend.repositories.UserRepository;
+
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Writes the catalog (or one admin's part of it) to a stream, one product at a time.
+ * Rows come from a single forward-only query, prices from the in-memory discount table.
+ * The CSV columns match the import format, with price holding the list price.
+ */
+@Service
+public class CatalogExportService {
+
+    private static final String CSV_HEADER =
+            "id,name,description,price,effectivePrice,discountPercentage,stock,categoryId,category,imageUrl";
+
+    private final ProductService productService;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    public CatalogExportService(ProductService productService, UserRepository userRepository,
+                                ObjectMapper objectMapper) {
+        this.productService = productService;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // resolved before the response starts, so an unknown admin is still a proper 404
+    public Long adminId(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("Admin not found"))
+                .getId();
+    }
+
+    // ✅ adminId null exports every product
+    public void export(CatalogFormat format, Long adminId, OutputStream out) throws IOException {
+        if (format == CatalogFormat.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            stream(adminId, product -> {
+                try {
+                    writer.write(csvRow(product));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        } else {
+            JsonGenerator generator = objectMapper.createGenerator(out);
+            stream(adminId, product -> {
+                try {
+                    generator.writeObject(product);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        }
+    }
+
+    private void stream(Long adminId, Consumer<ProductResponseDTO> sink) {
+        if (adminId != null) {
+            productService.streamProductsAddedBy(adminId, sink);
+        } else {
+            productService.streamAllProducts(sink);
+        }
+    }
+
+    private static String csvRow(ProductResponseDTO product) {
+        StringBuilder row = new StringBuilder(128);
+        row.append(product.getId()).append(',')
+                .append(Csv.escape(product.getName())).append(',')
+                .append(Csv.escape(product.getDescription())).append(',')
+                .append(product.getOriginalPrice()).append(',')
+                .append(product.getPrice()).append(',')
+                .append(product.getDiscount() != null ? product.getDiscount().getPercentage() : "").append(',')
+                .append(product.getStock()).append(',')
+                .append(product.getCategory() != null ? product.getCategory().getId() : "").append(',')
+                .append(Csv.escape(product.getCategory() != null ? product.getCategory().getName() : null)).append(',')
+                .append(Csv.escape(product.getImageUrl()))
+                .append('\n');
+        return row.toString();
+    }
+}
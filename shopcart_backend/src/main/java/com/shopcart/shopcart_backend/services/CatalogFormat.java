@@ -0,0 +1,7 @@
+package com.shopcart.shopcart_backend.services;
+
+// Wire formats for bulk catalog import and export
+public enum CatalogFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,497 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopcart.shopcart_backend.dto.ImportErrorDTO;
+import com.shopcart.shopcart_backend.dto.ImportReportDTO;
+import com.shopcart.shopcart_backend.entities.Category;
+import com.shopcart.shopcart_backend.entities.Product;
+import com.shopcart.shopcart_backend.entities.User;
+import com.shopcart.shopcart_backend.exception.ResourceNotFoundException;
+import com.shopcart.shopcart_backend.repositories.StoredImageRepository;
+import com.shopcart.shopcart_backend.repositories.UserRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk product import from a CSV or NDJSON stream.
+ * Rows are validated as they are read and written in JDBC batches, one transaction per chunk,
+ * so memory use is bounded by the chunk size whatever the size of the upload.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportService.class);
+
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int RETAINED_JOBS = 50;
+
+    // plain multi-row batch: with rewriteBatchedStatements the driver sends one INSERT per chunk and
+    // still hands back every IDENTITY key, which Hibernate cannot do for IDENTITY ids
+    private static final String INSERT_SQL = """
+            INSERT INTO products (name, description, price, stock, image_url, added_by_admin_id, category_id,
+                                  created_at, updated_at, version)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)
+            """;
+
+    // one reference per imported product, the same count ImageStore.store takes for an upload
+    private static final String ACQUIRE_IMAGE_SQL =
+            "UPDATE stored_images SET ref_count = ref_count + 1, released_at = NULL WHERE hash = ?";
+
+    @Value("${shopcart.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${shopcart.import.max-errors:100}")
+    private int maxErrors;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSuggestIndex suggestIndex;
+    private final CatalogVersions catalogVersions;
+    private final ImageStore imageStore;
+    private final StoredImageRepository storedImageRepository;
+
+    // most recent jobs, newest last
+    private final Map<String, Job> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Job> eldest) {
+            return size() > RETAINED_JOBS;
+        }
+    };
+
+    private record RawRow(long line, Map<String, String> fields, String error) {}
+
+    private record Row(long line, String name, String description, double price, int stock,
+                       String imageUrl, String imageHash, Category category) {}
+
+    private interface RowSource {
+        RawRow next() throws IOException;
+    }
+
+    public CatalogImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper, UserRepository userRepository,
+                                CategoryRegistry categoryRegistry, ProductSearchIndex searchIndex,
+                                ProductSuggestIndex suggestIndex, CatalogVersions catalogVersions,
+                                ImageStore imageStore, StoredImageRepository storedImageRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.userRepository = userRepository;
+        this.categoryRegistry = categoryRegistry;
+        this.searchIndex = searchIndex;
+        this.suggestIndex = suggestIndex;
+        this.catalogVersions = catalogVersions;
+        this.imageStore = imageStore;
+        this.storedImageRepository = storedImageRepository;
+    }
+
+    // ✅ Runs on the request thread; progress can be polled from another request meanwhile
+    public ImportReportDTO importProducts(InputStream body, CatalogFormat format, String adminEmail) {
+        User admin = userRepository.findByEmail(adminEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("Admin not found"));
+
+        // one category lookup for the whole file
+        Map<String, Category> categoriesByName = new HashMap<>();
+        Map<Long, Category> categoriesById = new HashMap<>();
+        for (Category category : categoryRegistry.list()) {
+            categoriesById.put(category.getId(), category);
+            if (category.getName() != null) {
+                categoriesByName.put(category.getName().trim().toLowerCase(Locale.ROOT), category);
+            }
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), format);
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            RowSource source = format == CatalogFormat.CSV ? csvRows(reader) : ndjsonRows(reader);
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            RawRow raw;
+            while ((raw = source.next()) != null) {
+                job.rowRead();
+                Row row = validate(raw, categoriesById, categoriesByName, job);
+                if (row != null) {
+                    chunk.add(row);
+                }
+                if (chunk.size() >= chunkSize) {
+                    flush(chunk, admin, job);
+                    chunk.clear();
+                }
+            }
+            flush(chunk, admin, job);
+            job.finish("COMPLETED");
+        } catch (IOException | RuntimeException e) {
+            logger.error("Product import {} failed", job.id, e);
+            job.error(0, "Import aborted: " + e.getMessage());
+            job.finish("FAILED");
+        } finally {
+            if (job.imported > 0) {
+                catalogVersions.productsChanged();
+            }
+        }
+
+        ImportReportDTO report = job.toDTO();
+        logger.info("Product import {} {}: {} read, {} imported, {} rejected",
+                job.id, report.getStatus(), report.getRowsRead(), report.getImported(), report.getRejected());
+        return report;
+    }
+
+    public Optional<ImportReportDTO> getProgress(String jobId) {
+        Job job;
+        synchronized (jobs) {
+            job = jobs.get(jobId);
+        }
+        return Optional.ofNullable(job).map(Job::toDTO);
+    }
+
+    // ✅ One transaction per chunk: a bad chunk is rolled back alone and the import carries on
+    private void flush(List<Row> rows, User admin, Job job) {
+        List<Row> chunk = withKnownImages(rows, job);
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status ->
+                    jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection ->
+                            insertBatch(connection, chunk, admin.getId())));
+        } catch (DataAccessException e) {
+            long first = chunk.get(0).line();
+            long last = chunk.get(chunk.size() - 1).line();
+            job.error(first, "Rows on lines " + first + "-" + last + " rolled back: "
+                    + e.getMostSpecificCause().getMessage());
+            job.rejected(chunk.size());
+            return;
+        }
+
+        for (int i = 0; i < chunk.size() && ids != null && i < ids.size(); i++) {
+            Row row = chunk.get(i);
+            Product product = Product.builder()
+                    .id(ids.get(i))
+                    .name(row.name())
+                    .description(row.description())
+                    .category(row.category())
+                    .build();
+            searchIndex.index(product);
+            suggestIndex.index(product);
+        }
+        job.chunkCommitted(chunk.size());
+    }
+
+    private List<Long> insertBatch(Connection connection, List<Row> chunk, Long adminId) throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (Row row : chunk) {
+                statement.setString(1, row.name());
+                statement.setString(2, row.description());
+                statement.setDouble(3, row.price());
+                statement.setInt(4, row.stock());
+                statement.setString(5, row.imageUrl());
+                statement.setLong(6, adminId);
+                if (row.category() != null) {
+                    statement.setLong(7, row.category().getId());
+                } else {
+                    statement.setNull(7, Types.BIGINT);
+                }
+                statement.setTimestamp(8, now);
+                statement.setTimestamp(9, now);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            acquireImages(connection, chunk);
+
+            List<Long> ids = new ArrayList<>(chunk.size());
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                while (keys.next()) {
+                    ids.add(keys.getLong(1));
+                }
+            }
+            return ids;
+        }
+    }
+
+    // one lookup per chunk; rows naming an image the store does not have are rejected
+    private List<Row> withKnownImages(List<Row> chunk, Job job) {
+        Set<String> hashes = new HashSet<>();
+        chunk.forEach(row -> {
+            if (row.imageHash() != null) hashes.add(row.imageHash());
+        });
+        if (hashes.isEmpty()) {
+            return chunk;
+        }
+        Set<String> known = new HashSet<>();
+        storedImageRepository.findAllById(hashes).forEach(image -> known.add(image.getHash()));
+
+        List<Row> accepted = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (row.imageHash() == null || known.contains(row.imageHash())) {
+                accepted.add(row);
+            } else {
+                reject(job, row.line(), "unknown image " + row.imageUrl());
+            }
+        }
+        return accepted;
+    }
+
+    private void acquireImages(Connection connection, List<Row> chunk) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(ACQUIRE_IMAGE_SQL)) {
+            List<Row> withImage = new ArrayList<>();
+            for (Row row : chunk) {
+                if (row.imageHash() == null) continue;
+                statement.setString(1, row.imageHash());
+                statement.addBatch();
+                withImage.add(row);
+            }
+            if (withImage.isEmpty()) {
+                return;
+            }
+            int[] counts = statement.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                // collected since the lookup; failing rolls the whole chunk back, references included
+                if (counts[i] == 0) {
+                    throw new SQLException("image " + withImage.get(i).imageUrl() + " is no longer stored");
+                }
+            }
+        }
+    }
+
+    private Row validate(RawRow raw, Map<Long, Category> categoriesById, Map<String, Category> categoriesByName,
+                         Job job) {
+        if (raw.error() != null) {
+            return reject(job, raw.line(), raw.error());
+        }
+        Map<String, String> fields = raw.fields();
+
+        String name = text(fields.get("name"));
+        if (name == null) {
+            return reject(job, raw.line(), "name is required");
+        }
+        if (name.length() > MAX_TEXT_LENGTH) {
+            return reject(job, raw.line(), "name is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        String description = text(fields.get("description"));
+        if (description != null && description.length() > MAX_TEXT_LENGTH) {
+            return reject(job, raw.line(), "description is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+
+        double price;
+        try {
+            price = Double.parseDouble(text(fields.get("price")));
+        } catch (NullPointerException | NumberFormatException e) {
+            return reject(job, raw.line(), "price must be a number");
+        }
+        if (!Double.isFinite(price) || price < 0) {
+            return reject(job, raw.line(), "price must not be negative");
+        }
+
+        int stock = 0;
+        String stockText = text(fields.get("stock"));
+        if (stockText != null) {
+            try {
+                stock = Integer.parseInt(stockText);
+            } catch (NumberFormatException e) {
+                return reject(job, raw.line(), "stock must be a whole number");
+            }
+            if (stock < 0) {
+                return reject(job, raw.line(), "stock must not be negative");
+            }
+        }
+
+        Category category = null;
+        String categoryId = text(fields.get("categoryid"));
+        String categoryName = text(fields.get("category"));
+        if (categoryId != null) {
+            try {
+                category = categoriesById.get(Long.parseLong(categoryId));
+            } catch (NumberFormatException ignored) {
+                // reported below
+            }
+            if (category == null) {
+                return reject(job, raw.line(), "unknown categoryId " + categoryId);
+            }
+        } else if (categoryName != null) {
+            category = categoriesByName.get(categoryName.toLowerCase(Locale.ROOT));
+            if (category == null) {
+                return reject(job, raw.line(), "unknown category " + categoryName);
+            }
+        }
+
+        // only images already in the store can be referenced, and each import row takes its own reference
+        String imageUrl = text(fields.get("imageurl"));
+        String imageHash = imageStore.originalHash(imageUrl);
+        if (imageUrl != null && imageHash == null) {
+            return reject(job, raw.line(), "imageUrl must be the URL of an image uploaded to this store");
+        }
+
+        return new Row(raw.line(), name, description, price, stock, imageUrl, imageHash, category);
+    }
+
+    private Row reject(Job job, long line, String message) {
+        job.error(line, message);
+        job.rejected(1);
+        return null;
+    }
+
+    private static String text(String value) {
+        if (value == null) return null;
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    // first record is the header; column names are matched case-insensitively
+    private RowSource csvRows(BufferedReader reader) throws IOException {
+        Csv.RecordReader records = new Csv.RecordReader(reader);
+        List<String> header = records.next();
+        if (header == null) {
+            return () -> null;
+        }
+        List<String> columns = header.stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        return () -> {
+            List<String> values = records.next();
+            if (values == null) {
+                return null;
+            }
+            long line = records.recordLine();
+            if (values.size() != columns.size()) {
+                return new RawRow(line, null, "expected " + columns.size() + " fields but found " + values.size());
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                fields.put(columns.get(i), values.get(i));
+            }
+            return new RawRow(line, fields, null);
+        };
+    }
+
+    private RowSource ndjsonRows(BufferedReader reader) {
+        long[] lineNumber = {0};
+        return () -> {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber[0]++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    return new RawRow(lineNumber[0], null, "not valid JSON");
+                }
+                if (!node.isObject()) {
+                    return new RawRow(lineNumber[0], null, "expected a JSON object");
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (Map.Entry<String, JsonNode> entry : node.properties()) {
+                    if (!entry.getValue().isNull()) {
+                        fields.put(entry.getKey().toLowerCase(Locale.ROOT), entry.getValue().asText());
+                    }
+                }
+                return new RawRow(lineNumber[0], fields, null);
+            }
+            return null;
+        };
+    }
+
+    // progress of one import; written by the importing thread, read by progress polls
+    private final class Job {
+        private final String id;
+        private final CatalogFormat format;
+        private final Date startedAt = new Date();
+        private final List<ImportErrorDTO> errors = new ArrayList<>();
+        private volatile String status = "RUNNING";
+        private volatile long rowsRead;
+        private volatile long imported;
+        private volatile long rejected;
+        private volatile int chunks;
+        private volatile boolean errorsTruncated;
+        private volatile Date finishedAt;
+
+        private Job(String id, CatalogFormat format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        void rowRead() {
+            rowsRead++;
+        }
+
+        void rejected(int rows) {
+            rejected += rows;
+        }
+
+        void chunkCommitted(int rows) {
+            imported += rows;
+            chunks++;
+        }
+
+        synchronized void error(long line, String message) {
+            if (errors.size() < maxErrors) {
+                errors.add(ImportErrorDTO.builder().line(line).message(message).build());
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        void finish(String finalStatus) {
+            finishedAt = new Date();
+            status = finalStatus;
+        }
+
+        synchronized ImportReportDTO toDTO() {
+            return ImportReportDTO.builder()
+                    .jobId(id)
+                    .status(status)
+                    .format(format.name())
+                    .rowsRead(rowsRead)
+                    .imported(imported)
+                    .rejected(rejected)
+                    .chunksCommitted(chunks)
+                    .errors(List.copyOf(errors))
+                    .errorsTruncated(errorsTruncated)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
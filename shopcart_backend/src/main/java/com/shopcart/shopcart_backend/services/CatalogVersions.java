@@ -0,0 +1,65 @@
+package com.shopcart.shopcart_backend.services;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-aggregate version counters used to build strong ETags without hashing response bodies.
+ * Write paths bump the counter; read endpoints compare it with If-None-Match before
+ * going anywhere near the database.
+ */
+@Component
+public class CatalogVersions {
+
+    // distinguishes counters of this run from ETags handed out before a restart
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong products = new AtomicLong();
+    private final Map<String, AtomicLong> ordersByUser = new ConcurrentHashMap<>();
+
+    private final CategoryRegistry categoryRegistry;
+    private final StockReservationLedger reservationLedger;
+
+    public CatalogVersions(CategoryRegistry categoryRegistry, StockReservationLedger reservationLedger) {
+        this.categoryRegistry = categoryRegistry;
+        this.reservationLedger = reservationLedger;
+    }
+
+    // bumped now and again after commit, so a read that raced with the write cannot keep the new tag
+    public void productsChanged() {
+        products.incrementAndGet();
+        AfterCommit.run(products::incrementAndGet);
+    }
+
+    public void ordersChanged(String email) {
+        AtomicLong version = ordersByUser.computeIfAbsent(email, e -> new AtomicLong());
+        version.incrementAndGet();
+        AfterCommit.run(version::incrementAndGet);
+    }
+
+    public String productsETag() {
+        return etag("products", products.get());
+    }
+
+    // product lists carry availableStock, so cart holds change them as well
+    public String productListETag() {
+        return "\"products-" + epoch + "-" + products.get() + "-" + reservationLedger.version() + "\"";
+    }
+
+    public String categoriesETag() {
+        return etag("categories", categoryRegistry.version());
+    }
+
+    public String ordersETag(String email) {
+        // orders share one URL across users, so the tag carries the user as well
+        AtomicLong version = ordersByUser.get(email);
+        return etag("orders-" + Integer.toHexString(email.hashCode()), version != null ? version.get() : 0);
+    }
+
+    private String etag(String aggregate, long version) {
+        return "\"" + aggregate + "-" + epoch + "-" + version + "\"";
+    }
+}
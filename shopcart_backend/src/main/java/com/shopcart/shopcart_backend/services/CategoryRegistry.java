@@ -0,0 +1,76 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.entities.Category;
+import com.shopcart.shopcart_backend.repositories.CategoryRepository;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Copy-on-write registry of all categories.
+ * Reads never touch the database; every change publishes a whole new immutable
+ * snapshot with a higher version, so readers always see a consistent list.
+ */
+@Component
+public class CategoryRegistry {
+
+    private final CategoryRepository categoryRepository;
+    private volatile Snapshot snapshot = new Snapshot(List.of(), Map.of(), 0);
+
+    private record Snapshot(List<Category> categories, Map<Long, Category> byId, long version) {}
+
+    public CategoryRegistry(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    @PostConstruct
+    public synchronized void reload() {
+        publish(categoryRepository.findAll());
+    }
+
+    public List<Category> list() {
+        return snapshot.categories();
+    }
+
+    public Optional<Category> find(Long id) {
+        return Optional.ofNullable(snapshot.byId().get(id));
+    }
+
+    public long version() {
+        return snapshot.version();
+    }
+
+    // ✅ Publish a created or renamed category
+    public synchronized void put(Category category) {
+        Map<Long, Category> next = new LinkedHashMap<>(snapshot.byId());
+        next.put(category.getId(), category);
+        publish(next.values());
+    }
+
+    public synchronized void remove(Long id) {
+        Map<Long, Category> next = new LinkedHashMap<>(snapshot.byId());
+        next.remove(id);
+        publish(next.values());
+    }
+
+    private void publish(Iterable<Category> categories) {
+        List<Category> copies = new ArrayList<>();
+        for (Category category : categories) {
+            // detached copies, so nothing outside the registry can change a published snapshot
+            copies.add(Category.builder().id(category.getId()).name(category.getName()).build());
+        }
+        copies.sort(Comparator.comparing(Category::getId));
+
+        Map<Long, Category> byId = new LinkedHashMap<>();
+        copies.forEach(category -> byId.put(category.getId(), category));
+
+        snapshot = new Snapshot(List.copyOf(copies), Map.copyOf(byId), snapshot.version() + 1);
+    }
+}
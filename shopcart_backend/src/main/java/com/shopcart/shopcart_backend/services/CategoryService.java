@@ -9,4 +9,5 @@ public interface CategoryService {
     void deleteCategory(Long id);
     List<Category> getAllCategories();
     Category getCategoryById(Long id);
+    long getCategoriesVersion();
 }
@@ -5,7 +5,6 @@ import com.shopcart.shopcart_backend.exception.ResourceNotFoundException;
 import com.shopcart.shopcart_backend.repositories.CategoryRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -14,18 +13,32 @@ import java.util.List;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final ProductSuggestIndex suggestIndex;
+    private final ProductCache productCache;
+    private final CatalogVersions catalogVersions;
 
     @Override
     public Category addCategory(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        categoryRegistry.put(saved);
+        suggestIndex.indexCategory(saved);
+        catalogVersions.productsChanged();
+        return saved;
     }
 
+    // ✅ Product responses embed the category, so cached ones and list ETags go stale with it
     @Override
     public Category updateCategory(Long id, Category category) {
         Category existing = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + id));
         existing.setName(category.getName());
-        return categoryRepository.save(existing);
+        Category saved = categoryRepository.save(existing);
+        categoryRegistry.put(saved);
+        suggestIndex.indexCategory(saved);
+        productCache.invalidateAll();
+        catalogVersions.productsChanged();
+        return saved;
     }
 
     @Override
@@ -33,16 +46,26 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + id));
         categoryRepository.delete(category);
+        categoryRegistry.remove(id);
+        suggestIndex.removeCategory(id);
+        productCache.invalidateAll();
+        catalogVersions.productsChanged();
     }
 
+    // ✅ Reads are served from the in-memory snapshot
     @Override
     public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+        return categoryRegistry.list();
     }
 
     @Override
     public Category getCategoryById(Long id) {
-        return categoryRepository.findById(id)
+        return categoryRegistry.find(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + id));
     }
+
+    @Override
+    public long getCategoriesVersion() {
+        return categoryRegistry.version();
+    }
 }
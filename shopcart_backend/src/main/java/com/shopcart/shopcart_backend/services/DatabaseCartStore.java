@@ -0,0 +1,57 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.repositories.CartItemRepository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Write-through cart storage: every change is written before it returns (shopcart.cart.store=database)
+@Component
+@ConditionalOnProperty(name = "shopcart.cart.store", havingValue = "database")
+public class DatabaseCartStore implements CartStore {
+
+    private final CartItemRepository cartItemRepository;
+    private final CartLineWriter writer;
+    private final JdbcTemplate jdbcTemplate;
+
+    public DatabaseCartStore(CartItemRepository cartItemRepository, CartLineWriter writer, JdbcTemplate jdbcTemplate) {
+        this.cartItemRepository = cartItemRepository;
+        this.writer = writer;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> lines(Long userId) {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        cartItemRepository.findLinesByUserId(userId)
+                .forEach(row -> lines.put(row.getProductId(), row.getQuantity()));
+        return lines;
+    }
+
+    // own transaction, since it is also called from after-commit callbacks
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Map<Long, Integer> update(Long userId, Consumer<Map<Long, Integer>> mutation) {
+        // the user row lock serialises concurrent changes to the same cart
+        jdbcTemplate.queryForList("SELECT id FROM users WHERE id = ? FOR UPDATE", Long.class, userId);
+
+        Map<Long, Integer> current = lines(userId);
+        Map<Long, Integer> updated = new LinkedHashMap<>(current);
+        mutation.accept(updated);
+        updated.values().removeIf(quantity -> quantity == null || quantity <= 0);
+
+        Map<Long, Integer> changes = CartLineWriter.changes(current, updated);
+        if (!changes.isEmpty()) {
+            writer.write(Map.of(userId, changes));
+        }
+        return updated;
+    }
+}
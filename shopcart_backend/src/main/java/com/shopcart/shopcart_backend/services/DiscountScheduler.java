@@ -0,0 +1,158 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.dto.DiscountDTO;
+import com.shopcart.shopcart_backend.entities.Discount;
+import com.shopcart.shopcart_backend.entities.Product;
+import com.shopcart.shopcart_backend.repositories.DiscountRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Keeps the currently active discount of every product in memory.
+ * Each discount window gets a start and an expiry timer, so the table flips exactly
+ * when a discount begins or ends and price reads never scan discount rows.
+ */
+@Component
+public class DiscountScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscountScheduler.class);
+
+    private final DiscountRepository discountRepository;
+    private final TaskScheduler taskScheduler;
+    private final ProductCache productCache;
+    private final CatalogVersions catalogVersions;
+
+    // productId -> discount currently in effect
+    private final Map<Long, Window> active = new ConcurrentHashMap<>();
+    // discountId -> pending start/expiry timers for that window
+    private final Map<Long, Timers> timers = new ConcurrentHashMap<>();
+
+    private record Window(Long discountId, Long productId, DiscountDTO discount, Date startDate, Date endDate) {}
+
+    private record Timers(Window window, List<ScheduledFuture<?>> futures) {}
+
+    public DiscountScheduler(DiscountRepository discountRepository, TaskScheduler taskScheduler,
+                             ProductCache productCache, CatalogVersions catalogVersions) {
+        this.discountRepository = discountRepository;
+        this.taskScheduler = taskScheduler;
+        this.productCache = productCache;
+        this.catalogVersions = catalogVersions;
+    }
+
+    // ✅ Load every current and upcoming discount at startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        timers.values().forEach(t -> t.futures().forEach(f -> f.cancel(false)));
+        timers.clear();
+        active.clear();
+
+        Date now = new Date();
+        int expired = discountRepository.deactivateExpired(now);
+        List<Discount> discounts = discountRepository.findAllActiveDiscounts(now);
+        discounts.forEach(this::register);
+        logger.info("Discount table loaded: {} scheduled, {} active, {} expired rows deactivated",
+                discounts.size(), active.size(), expired);
+    }
+
+    // ✅ O(1) price reads
+    public DiscountDTO activeDiscount(Long productId) {
+        Window window = productId != null ? active.get(productId) : null;
+        return window != null ? window.discount() : null;
+    }
+
+    public double effectivePrice(Product product) {
+        if (product == null) return 0.0;
+        return applyDiscount(product.getPrice(), activeDiscount(product.getId()));
+    }
+
+    public static double applyDiscount(double price, DiscountDTO discount) {
+        return discount != null ? price - (price * discount.getPercentage() / 100) : price;
+    }
+
+    // ✅ Called after a discount is created or edited (takes effect once the transaction commits)
+    public void schedule(Discount discount) {
+        AfterCommit.run(() -> register(discount));
+    }
+
+    // ✅ Called after a product's discount is switched off
+    public void unschedule(Long productId) {
+        AfterCommit.run(() -> {
+            timers.values().removeIf(t -> {
+                if (!t.window().productId().equals(productId)) return false;
+                t.futures().forEach(f -> f.cancel(false));
+                return true;
+            });
+            active.remove(productId);
+            productCache.invalidate(productId);
+            catalogVersions.productsChanged();
+        });
+    }
+
+    private void register(Discount discount) {
+        Timers previous = timers.remove(discount.getId());
+        if (previous != null) {
+            previous.futures().forEach(f -> f.cancel(false));
+            active.remove(previous.window().productId(), previous.window());
+        }
+        if (!discount.isActive()) {
+            return;
+        }
+
+        Window window = new Window(
+                discount.getId(),
+                discount.getProduct().getId(),
+                DiscountDTO.builder()
+                        .percentage(discount.getPercentage())
+                        .endDate(discount.getEndDate())
+                        .active(true)
+                        .build(),
+                discount.getStartDate(),
+                discount.getEndDate());
+
+        Date now = new Date();
+        if (window.endDate() != null && now.after(window.endDate())) {
+            return;
+        }
+
+        List<ScheduledFuture<?>> futures = new ArrayList<>();
+        if (window.startDate() != null && now.before(window.startDate())) {
+            futures.add(taskScheduler.schedule(() -> activate(window), window.startDate().toInstant()));
+        } else {
+            activate(window);
+        }
+        if (window.endDate() != null) {
+            // ends are inclusive, so flip just after the end instant
+            futures.add(taskScheduler.schedule(() -> expire(window), window.endDate().toInstant().plusMillis(1)));
+        }
+        timers.put(window.discountId(), new Timers(window, futures));
+    }
+
+    private void activate(Window window) {
+        active.put(window.productId(), window);
+        productCache.invalidate(window.productId());
+        catalogVersions.productsChanged();
+        logger.info("Discount {} now active for product {}", window.discountId(), window.productId());
+    }
+
+    private void expire(Window window) {
+        timers.remove(window.discountId());
+        active.remove(window.productId(), window);
+        productCache.invalidate(window.productId());
+        catalogVersions.productsChanged();
+        int deactivated = discountRepository.deactivateExpired(new Date());
+        logger.info("Discount {} expired for product {} ({} rows deactivated)",
+                window.discountId(), window.productId(), deactivated);
+    }
+}
@@ -0,0 +1,278 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.entities.StoredImage;
+import com.shopcart.shopcart_backend.repositories.StoredImageRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed store for product images.
+ * Files live at {@code ab/cd/<sha256>.<ext>} under the upload directory, so identical uploads
+ * share one file and no directory grows past a few hundred entries. Products hold references
+ * counted in {@code stored_images}; unreferenced files are removed by a background collector
+ * after a grace period. Reference counts are committed on their own: inside a caller's
+ * transaction a new reference is given back if that transaction rolls back, and releases wait
+ * until it commits.
+ */
+@Service
+public class ImageStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStore.class);
+
+    static final String URL_PREFIX = "product-images/";
+
+    // original: ab/cd/<hash>.<ext>, variants: ab/cd/<hash>-<name>.<ext>
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile(
+            "^" + URL_PREFIX + "[0-9a-f]{2}/[0-9a-f]{2}/([0-9a-f]{64})(-[a-z]+)?\\.[a-z0-9]{1,8}$");
+
+    private static final String INCOMING_DIR = ".incoming";
+    private static final int GC_BATCH_SIZE = 200;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Value("${shopcart.images.gc-grace-hours:24}")
+    private long gcGraceHours;
+
+    private final StoredImageRepository storedImageRepository;
+    private final ProductImageCache imageCache;
+    private final TransactionTemplate ownTransaction;
+
+    // serialises store and collect for the same hash, so a file is never collected while being re-added
+    private final Object[] stripes = new Object[64];
+
+    public ImageStore(StoredImageRepository storedImageRepository, ProductImageCache imageCache,
+                      PlatformTransactionManager transactionManager) {
+        this.storedImageRepository = storedImageRepository;
+        this.imageCache = imageCache;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    // ✅ Store an upload (hashing while it is copied) and take a reference to it
+    public String store(MultipartFile upload) throws IOException {
+        Path temp = createIncomingFile("upload-");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(upload.getInputStream(), digest)) {
+                size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            String url;
+            synchronized (stripe(hash)) {
+                // committed before the file is moved in, so the collector always knows about it
+                String extension = ownTransaction.execute(status -> {
+                    Optional<StoredImage> existing = storedImageRepository.findById(hash);
+                    if (existing.isPresent()) {
+                        storedImageRepository.acquire(hash);
+                        return existing.get().getExtension();
+                    }
+                    String newExtension = extension(upload.getOriginalFilename());
+                    storedImageRepository.save(StoredImage.builder()
+                            .hash(hash)
+                            .extension(newExtension)
+                            .size(size)
+                            .refCount(1)
+                            .build());
+                    return newExtension;
+                });
+
+                Path target = pathFor(hash, extension);
+                if (!Files.exists(target)) {
+                    Files.createDirectories(target.getParent());
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+                url = toUrl(target);
+            }
+            releaseOnRollback(url);
+            return url;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // ✅ Drop a product's reference once the caller's transaction commits (right away without one);
+    // legacy flat uploads belong to one product and are deleted then
+    public void release(String imageUrl) {
+        if (imageUrl == null) {
+            return;
+        }
+        AfterCommit.run(() -> releaseNow(imageUrl));
+    }
+
+    // the caller's product changes were rolled back, so the reference store() took is not used
+    private void releaseOnRollback(String imageUrl) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    releaseNow(imageUrl);
+                }
+            }
+        });
+    }
+
+    private void releaseNow(String imageUrl) {
+        Matcher matcher = CONTENT_ADDRESSED.matcher(imageUrl);
+        if (matcher.matches()) {
+            if (matcher.group(2) == null) {
+                ownTransaction.executeWithoutResult(status -> storedImageRepository.release(matcher.group(1), new Date()));
+            }
+            return;
+        }
+        try {
+            Path file = resolve(imageUrl);
+            Files.deleteIfExists(file);
+            imageCache.invalidate(file);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Could not delete legacy image {}", imageUrl, e);
+        }
+    }
+
+    // shared files must only be removed by the collector
+    public boolean isContentAddressed(String imageUrl) {
+        return imageUrl != null && CONTENT_ADDRESSED.matcher(imageUrl).matches();
+    }
+
+    // a scratch file on the same file system as the store, so it can be moved into place atomically
+    Path createIncomingFile(String prefix) throws IOException {
+        Path incoming = root().resolve(INCOMING_DIR);
+        Files.createDirectories(incoming);
+        return Files.createTempFile(incoming, prefix, ".tmp");
+    }
+
+    // the lock store and collect take for this image's hash; variant writers take it too (legacy URLs stripe by path)
+    Object lockFor(String imageUrl) {
+        Matcher matcher = CONTENT_ADDRESSED.matcher(imageUrl);
+        return stripe(matcher.matches() ? matcher.group(1) : imageUrl);
+    }
+
+    // hash of a content-addressed original; null for variants and anything else
+    String originalHash(String imageUrl) {
+        Matcher matcher = imageUrl != null ? CONTENT_ADDRESSED.matcher(imageUrl) : null;
+        return matcher != null && matcher.matches() && matcher.group(2) == null ? matcher.group(1) : null;
+    }
+
+    // URLs come from the database and imports, so one that escapes the upload directory is refused
+    public Path resolve(String imageUrl) {
+        Path root = root();
+        Path file = root.resolve(imageUrl.replace(URL_PREFIX, "")).normalize();
+        if (!file.startsWith(root) || file.equals(root)) {
+            throw new IllegalArgumentException("Image path outside the upload directory: " + imageUrl);
+        }
+        return file;
+    }
+
+    public String toUrl(Path file) {
+        return URL_PREFIX + root().relativize(file.toAbsolutePath().normalize()).toString().replace('\\', '/');
+    }
+
+    // ✅ Background collection of images nobody has referenced for the whole grace period
+    @Scheduled(fixedDelayString = "${shopcart.images.gc-interval-ms:3600000}",
+               initialDelayString = "${shopcart.images.gc-interval-ms:3600000}")
+    public void collectGarbage() {
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(gcGraceHours));
+        int collected = 0;
+        List<StoredImage> batch;
+        do {
+            batch = storedImageRepository.findUnreferencedSince(cutoff, PageRequest.of(0, GC_BATCH_SIZE));
+            for (StoredImage image : batch) {
+                synchronized (stripe(image.getHash())) {
+                    if (storedImageRepository.deleteIfUnreferenced(image.getHash()) == 1) {
+                        deleteFiles(image);
+                        collected++;
+                    }
+                }
+            }
+        } while (batch.size() == GC_BATCH_SIZE);
+
+        if (collected > 0) {
+            logger.info("Image store collected {} unreferenced images", collected);
+        }
+    }
+
+    // the original and every variant derived from it
+    private void deleteFiles(StoredImage image) {
+        Path directory = pathFor(image.getHash(), image.getExtension()).getParent();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, image.getHash() + "*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+                imageCache.invalidate(file);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not delete files of image {}", image.getHash(), e);
+        }
+    }
+
+    private Path pathFor(String hash, String extension) {
+        return root().resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash + "." + extension);
+    }
+
+    private Path root() {
+        return Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    private Object stripe(String hash) {
+        return stripes[Math.floorMod(hash.hashCode(), stripes.length)];
+    }
+
+    private static String extension(String originalFilename) {
+        if (originalFilename != null) {
+            int dot = originalFilename.lastIndexOf('.');
+            String extension = dot >= 0 ? originalFilename.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+            if (extension.matches("[a-z0-9]{1,8}")) {
+                return extension;
+            }
+        }
+        return "bin";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
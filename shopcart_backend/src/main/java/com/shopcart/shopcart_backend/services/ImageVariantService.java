@@ -0,0 +1,256 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.entities.Product;
+import com.shopcart.shopcart_backend.repositories.ProductRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Builds the resized variants of an uploaded product image off the request thread.
+ * The upload is decoded once; each smaller variant is scaled down from the previous one.
+ * Until the variants are recorded, responses fall back to the original image.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private static final int DETAIL_WIDTH = 1000;
+    private static final int CARD_WIDTH = 400;
+    private static final int THUMBNAIL_WIDTH = 200;
+
+    @Value("${shopcart.images.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final CatalogVersions catalogVersions;
+    private final ProductImageCache imageCache;
+    private final ImageStore imageStore;
+
+    public ImageVariantService(ProductRepository productRepository, ProductCache productCache,
+                               CatalogVersions catalogVersions, ProductImageCache imageCache,
+                               ImageStore imageStore) {
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.catalogVersions = catalogVersions;
+        this.imageCache = imageCache;
+        this.imageStore = imageStore;
+    }
+
+    // ✅ Runs on the image pool; the upload request has already returned
+    @Async("imageExecutor")
+    public void generateVariants(Long productId, String imageUrl) {
+        List<Path> written = new ArrayList<>();
+        // content-addressed variants may be shared with other products, so they are never cleaned up here
+        boolean shared = imageStore.isContentAddressed(imageUrl);
+        try {
+            Path source = imageStore.resolve(imageUrl);
+            String base = baseName(source);
+            Path detailFile = source.resolveSibling(base + "-detail.jpg");
+            Path cardFile = source.resolveSibling(base + "-card.jpg");
+            Path thumbnailFile = source.resolveSibling(base + "-thumb.jpg");
+            Path webpFile = source.resolveSibling(base + "-card.webp");
+
+            // two products with the same content, or two runs for the same legacy file, would otherwise
+            // write the same variant files at once; legacy paths lock on a stripe of their own URL
+            synchronized (imageStore.lockFor(imageUrl)) {
+                // a re-upload of known content reuses the variants that already exist
+                if (!shared || !Files.exists(detailFile) || !Files.exists(cardFile) || !Files.exists(thumbnailFile)) {
+                    BufferedImage original = decode(source);
+                    if (original == null) {
+                        logger.warn("No image reader for {}, product {} keeps the original only", imageUrl, productId);
+                        return;
+                    }
+
+                    BufferedImage detail = resize(original, DETAIL_WIDTH);
+                    BufferedImage card = resize(detail, CARD_WIDTH);
+                    BufferedImage thumbnail = resize(card, THUMBNAIL_WIDTH);
+
+                    writeJpeg(detail, detailFile, true, written);
+                    writeJpeg(card, cardFile, false, written);
+                    writeJpeg(thumbnail, thumbnailFile, false, written);
+                    if (!writeWebp(card, webpFile, written)) {
+                        webpFile = null;
+                    }
+                } else if (!Files.exists(webpFile)) {
+                    webpFile = null;
+                }
+            }
+
+            // only record the variants if the product still points at the image they were made from
+            int updated = productRepository.updateImageVariants(productId, imageUrl,
+                    imageStore.toUrl(thumbnailFile), imageStore.toUrl(cardFile), imageStore.toUrl(detailFile),
+                    webpFile != null ? imageStore.toUrl(webpFile) : null);
+            if (updated == 0) {
+                if (!shared) deleteFiles(written);
+                return;
+            }
+            productCache.invalidate(productId);
+            catalogVersions.productsChanged();
+            logger.info("Image variants ready for product {}", productId);
+        } catch (IOException | RuntimeException e) {
+            if (!shared) deleteFiles(written);
+            logger.error("Image variants failed for product {}", productId, e);
+        }
+    }
+
+    // ✅ Forget the variants of an image that is being replaced (shared files are left to the image store);
+    // the files go once the caller's transaction commits, so a rolled-back edit still finds them
+    public void deleteVariants(Product product) {
+        List<String> urls = new ArrayList<>();
+        if (!imageStore.isContentAddressed(product.getImageUrl())) {
+            for (String url : new String[]{product.getThumbnailUrl(), product.getCardImageUrl(),
+                    product.getDetailImageUrl(), product.getWebpImageUrl()}) {
+                if (url != null) urls.add(url);
+            }
+        }
+        AfterCommit.run(() -> urls.forEach(url -> {
+            try {
+                Path file = imageStore.resolve(url);
+                Files.deleteIfExists(file);
+                imageCache.invalidate(file);
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warn("Could not delete image variant {}", url, e);
+            }
+        }));
+        product.setThumbnailUrl(null);
+        product.setCardImageUrl(null);
+        product.setDetailImageUrl(null);
+        product.setWebpImageUrl(null);
+    }
+
+    private BufferedImage decode(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                // pixels beyond twice the largest variant would be thrown away anyway, so skip decoding them
+                int step = Math.max(1, reader.getWidth(0) / (DETAIL_WIDTH * 2));
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static BufferedImage resize(BufferedImage source, int maxWidth) {
+        int targetWidth = Math.min(maxWidth, source.getWidth());
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+
+        BufferedImage current = source;
+        // halve first, so bilinear filtering keeps its quality on large reductions
+        while (current.getWidth() / 2 >= targetWidth) {
+            current = draw(current, current.getWidth() / 2, Math.max(1, current.getHeight() / 2));
+        }
+        if (current.getWidth() != targetWidth || current.getType() != BufferedImage.TYPE_INT_RGB) {
+            current = draw(current, targetWidth, targetHeight);
+        }
+        return current;
+    }
+
+    // JPEG has no alpha channel, so everything is flattened onto white RGB
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target, boolean progressive, List<Path> written)
+            throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        if (progressive) {
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        }
+        write(writer, param, image, target, written);
+    }
+
+    // WebP needs an ImageIO plugin on the classpath; without one the JPEG variants are all we serve
+    private boolean writeWebp(BufferedImage image, Path target, List<Path> written) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("webp");
+        if (!writers.hasNext()) {
+            return false;
+        }
+        ImageWriter writer = writers.next();
+        write(writer, writer.getDefaultWriteParam(), image, target, written);
+        return true;
+    }
+
+    // written next to the store and moved into place, so readers never see a partly written variant
+    private void write(ImageWriter writer, ImageWriteParam param, BufferedImage image, Path target,
+                       List<Path> written) throws IOException {
+        Path temp = imageStore.createIncomingFile("variant-");
+        try {
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            written.add(target);
+            imageCache.invalidate(target);
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String baseName(Path source) {
+        String name = source.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static void deleteFiles(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // best effort: an orphaned variant is harmless
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.config.ConflictRetry;
+import com.shopcart.shopcart_backend.entities.Order;
+import com.shopcart.shopcart_backend.entities.OrderItem;
+import com.shopcart.shopcart_backend.entities.OrderStatus;
+import com.shopcart.shopcart_backend.entities.OrderStatusHistory;
+import com.shopcart.shopcart_backend.repositories.OrderRepository;
+import com.shopcart.shopcart_backend.repositories.OrderStatusHistoryRepository;
+import com.shopcart.shopcart_backend.services.PaymentGateway.PaymentRequest;
+import com.shopcart.shopcart_backend.services.PaymentGateway.PaymentResult;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Second half of checkout. placeOrder commits the order as PENDING and hands it here; the
+ * gateway answers later and the result is applied in its own short transaction:
+ * PLACED on approval, FAILED on decline (stock returned, lines put back in the cart).
+ * Orders whose result never arrives fail after {@code shopcart.payments.pending-timeout-minutes}.
+ */
+@Service
+public class OrderPaymentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderPaymentService.class);
+
+    private final PaymentGateway paymentGateway;
+    private final OrderRepository orderRepository;
+    private final StockWriter stockWriter;
+    private final OrderStatusHistoryRepository historyRepository;
+    private final ProductCache productCache;
+    private final CatalogVersions catalogVersions;
+    private final ProductSuggestIndex suggestIndex;
+    private final CartStore cartStore;
+    private final Executor paymentExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${shopcart.payments.pending-timeout-minutes:15}")
+    private long pendingTimeoutMinutes;
+
+    public OrderPaymentService(PaymentGateway paymentGateway, OrderRepository orderRepository,
+                               StockWriter stockWriter, OrderStatusHistoryRepository historyRepository,
+                               ProductCache productCache, CatalogVersions catalogVersions,
+                               ProductSuggestIndex suggestIndex, CartStore cartStore,
+                               @Qualifier("paymentExecutor") Executor paymentExecutor,
+                               PlatformTransactionManager transactionManager) {
+        this.paymentGateway = paymentGateway;
+        this.orderRepository = orderRepository;
+        this.stockWriter = stockWriter;
+        this.historyRepository = historyRepository;
+        this.productCache = productCache;
+        this.catalogVersions = catalogVersions;
+        this.suggestIndex = suggestIndex;
+        this.cartStore = cartStore;
+        this.paymentExecutor = paymentExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // ✅ Called once the PENDING order is committed; returns right away
+    public void startPayment(Long orderId, double amount, String method) {
+        paymentGateway.charge(new PaymentRequest(orderId, amount, method))
+                .whenCompleteAsync((result, error) -> complete(orderId, error == null ? result
+                        : PaymentResult.declined("Payment gateway error: " + error.getMessage())), paymentExecutor);
+    }
+
+    public void complete(Long orderId, PaymentResult result) {
+        try {
+            // a cancellation racing the result changes the same order; re-read and apply again
+            ConflictRetry.call("Payment result for order " + orderId, 4, 25, () -> {
+                transactionTemplate.executeWithoutResult(status -> apply(orderId, result));
+                return null;
+            });
+        } catch (Throwable e) {
+            // left PENDING, the timeout sweep fails it and returns the stock
+            logger.error("Could not record payment result for order {}", orderId, e);
+        }
+    }
+
+    // ✅ Orders whose payment result never arrived
+    @Scheduled(fixedDelayString = "${shopcart.payments.pending-sweep-ms:60000}",
+               initialDelayString = "${shopcart.payments.pending-sweep-ms:60000}")
+    public void failStalePayments() {
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(pendingTimeoutMinutes));
+        orderRepository.findIdsByStatusAndCreatedAtBefore(OrderStatus.PENDING, cutoff)
+                .forEach(orderId -> complete(orderId, PaymentResult.declined("Payment timed out")));
+    }
+
+    private void apply(Long orderId, PaymentResult result) {
+        Order order = orderRepository.findById(orderId).orElse(null);
+        if (order == null || order.getStatus() != OrderStatus.PENDING) {
+            // already settled: a late answer after the timeout, or a retry from the gateway
+            boolean alreadyCharged = order != null && result.transactionId() != null
+                    && result.transactionId().equals(order.getTransactionId());
+            if (result.approved() && !alreadyCharged) {
+                // the order no longer counts on this money, so it goes back once nothing can roll back
+                AfterCommit.run(() -> refund(orderId, result.transactionId()));
+            }
+            return;
+        }
+
+        // cancellation and admin status changes wait for the payment, so every item is still PENDING here
+        List<OrderItem> open = order.getOrderItems().stream()
+                .filter(item -> item.getStatus() == OrderStatus.PENDING)
+                .collect(Collectors.toList());
+        OrderStatus status = result.approved() ? OrderStatus.PLACED : OrderStatus.FAILED;
+        open.forEach(item -> item.setStatus(status));
+        order.setStatus(status);
+        order.setPaymentStatus(result.approved() ? "SUCCESS" : "FAILED");
+        order.setTransactionId(result.transactionId());
+
+        if (result.approved()) {
+            for (OrderItem item : open) {
+                Long productId = item.getProduct().getId();
+                int quantity = item.getQuantity();
+                // sales feed suggestion ranking once the order is committed
+                AfterCommit.run(() -> suggestIndex.recordSale(productId, quantity));
+            }
+        } else {
+            returnToStockAndCart(order, open);
+            logger.info("Payment for order {} failed: {}", orderId, result.failureReason());
+        }
+
+        orderRepository.save(order);
+        historyRepository.save(OrderStatusHistory.builder()
+                .order(order)
+                .status(status)
+                .changedAt(new Date())
+                .build());
+        catalogVersions.ordersChanged(order.getUser().getEmail());
+    }
+
+    private void refund(Long orderId, String transactionId) {
+        logger.warn("Payment {} approved for order {} that is no longer pending, refunding", transactionId, orderId);
+        paymentGateway.refund(new PaymentGateway.RefundRequest(orderId, transactionId))
+                .whenComplete((refund, error) -> {
+                    if (error != null || !refund.approved()) {
+                        logger.error("Refund of payment {} for order {} failed: {}", transactionId, orderId,
+                                error != null ? error.getMessage() : refund.failureReason());
+                    } else {
+                        logger.info("Payment {} for order {} refunded ({})", transactionId, orderId,
+                                refund.transactionId());
+                    }
+                });
+    }
+
+    private void returnToStockAndCart(Order order, List<OrderItem> items) {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        items.forEach(item -> lines.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum));
+        stockWriter.increment(lines);
+        lines.keySet().forEach(productCache::invalidate);
+        catalogVersions.productsChanged();
+
+        // the customer can retry without filling the cart again
+        Long userId = order.getUser().getId();
+        AfterCommit.run(() -> cartStore.update(userId, cart ->
+                lines.forEach((productId, quantity) -> cart.merge(productId, quantity, Integer::sum))));
+    }
+}
@@ -10,7 +10,11 @@ import com.shopcart.shopcart_backend.entities.*;
 import com.shopcart.shopcart_backend.exception.BadRequestException;
 import com.shopcart.shopcart_backend.exception.ResourceNotFoundException;
 import com.shopcart.shopcart_backend.repositories.*;
+import com.shopcart.shopcart_backend.config.RetryOnConflict;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -50,6 +54,20 @@ public class OrderServiceImpl implements OrderService {
     private OrderItemRepository orderItemRepository;
     @Autowired
     private ProductService productService;
+    @Autowired
+    private ProductCache productCache;
+    @Autowired
+    private CatalogVersions catalogVersions;
+    @Autowired
+    private CartStore cartStore;
+    @Autowired
+    private StockReservationLedger reservationLedger;
+    @Autowired
+    private OrderPaymentService orderPaymentService;
+    @Autowired
+    private StockWriter stockWriter;
+    @PersistenceContext
+    private EntityManager entityManager;
 
     // ✅ Place new order
     @Transactional
@@ -58,58 +76,58 @@ public class OrderServiceImpl implements OrderService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
 
-        // 🛒 Step 1: Fetch cart items
-        List<CartItem> cartItems = cartItemRepository.findByUser(user);
-        if (cartItems.isEmpty()) {
+        // 🛒 Step 1: Fetch cart lines (the store holds changes not yet flushed to cart_items)
+        Map<Long, Integer> cart = cartStore.lines(user.getId());
+        if (cart.isEmpty()) {
             throw new BadRequestException("Cart is empty");
         }
+        Map<Long, Product> products = productRepository.findAllById(cart.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
 
-        // 💳 Step 2: Simulate payment
-        try {
-            Thread.sleep(1500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-
-        String transactionId = "TXN-" + System.currentTimeMillis();
-
-        // 🧮 Step 3: Convert CartItems → OrderItems
+        // 🧮 Step 2: Convert cart lines → OrderItems
         double totalAmount = 0;
         List<OrderItem> orderItems = new ArrayList<>();
 
-        for (CartItem cartItem : cartItems) {
-            Product product = cartItem.getProduct();
-            int qty = cartItem.getQuantity();
+        for (Map.Entry<Long, Integer> line : cart.entrySet()) {
+            Product product = products.get(line.getKey());
+            int qty = line.getValue();
+            if (product == null) {
+                throw new BadRequestException("Product " + line.getKey() + " in the cart is no longer available");
+            }
 
-            // Stock check
-            if (product.getStock() < qty) {
+            // Stock check: units held by other carts are not for sale
+            if (reservationLedger.availableTo(user.getId(), product.getId(), product.getStock()) < qty) {
                 throw new BadRequestException("Insufficient stock for product: " + product.getName());
             }
 
-            // Update stock
-            product.setStock(product.getStock() - qty);
-            productRepository.save(product);
-
             // Create OrderItem
             OrderItem orderItem = OrderItem.builder()
                     .product(product)
                     .quantity(qty)
                     .price(product.getPrice())
                     .total(product.getPrice() * qty)
+                    .status(OrderStatus.PENDING)
                     .build();
 
             orderItems.add(orderItem);
             totalAmount += qty * product.getPrice();
         }
 
-        // 📦 Step 4: Build Order entity
+        // 📉 Step 3: Take the units out of stock in one guarded batch; any short line rolls back the order
+        List<Long> shortOf = stockWriter.decrement(cart);
+        if (!shortOf.isEmpty()) {
+            throw new BadRequestException("Insufficient stock for product: " + products.get(shortOf.get(0)).getName());
+        }
+        cart.keySet().forEach(productCache::invalidate);
+        catalogVersions.productsChanged();
+
+        // 📦 Step 4: Build Order entity; it stays PENDING until the payment result arrives
         Order order = new Order();
         order.setUser(user);
         order.setOrderDate(new Date());
-        order.setStatus(OrderStatus.PLACED);
-        order.setTransactionId(transactionId);
+        order.setStatus(OrderStatus.PENDING);
         order.setPaymentMethod(request.getPaymentMethod());
-        order.setPaymentStatus("SUCCESS");
+        order.setPaymentStatus("PENDING");
         order.setTotalAmount(totalAmount);
         order.setShippingAddress(ShippingAddressDTO.toEmbeddable(request.getShippingAddress()));
 
@@ -121,11 +139,24 @@ public class OrderServiceImpl implements OrderService {
 
         // 💾 Step 5: Save order
         orderRepository.save(order);
-
-        // 🧹 Step 6: Clear cart
-        cartItemRepository.deleteAll(cartItems);
-
-        // 🎯 Step 7: Return response
+        addOrderStatusHistory(order, OrderStatus.PENDING);
+
+        // 🧹 Step 6: Clear cart; only what was ordered, lines added meanwhile stay
+        Long userId = user.getId();
+        cartItemRepository.deleteLines(userId, cart.keySet());
+        AfterCommit.run(() -> cartStore.update(userId, lines ->
+                cart.forEach((productId, ordered) -> lines.computeIfPresent(productId,
+                        (id, quantity) -> quantity > ordered ? quantity - ordered : null))));
+        // the held units are now taken out of stock, so the holds go
+        AfterCommit.run(() -> reservationLedger.release(userId, cart.keySet()));
+        catalogVersions.ordersChanged(email);
+
+        // 💳 Step 7: Charge once committed; the request thread and connection are released now
+        Long orderId = order.getId();
+        double amount = totalAmount;
+        AfterCommit.run(() -> orderPaymentService.startPayment(orderId, amount, request.getPaymentMethod()));
+
+        // 🎯 Step 8: Return response (PENDING, poll GET /api/orders/{id} for the result)
         return OrderResponseDTO.from(order);
     }
 
@@ -165,10 +196,12 @@ public class OrderServiceImpl implements OrderService {
     }
 
 @Transactional
+@RetryOnConflict
 @Override
 public void updateOrderStatus(Long orderId, OrderStatus status) {
     Order order = orderRepository.findById(orderId)
             .orElseThrow(() -> new ResourceNotFoundException("Order not found with ID: " + orderId));
+    requirePaymentSettled(order.getStatus(), status);
 
     // Update the order status
     order.setStatus(status);
@@ -183,6 +216,7 @@ public void updateOrderStatus(Long orderId, OrderStatus status) {
 
     // Add history for order status
     addOrderStatusHistory(order, status);
+    catalogVersions.ordersChanged(order.getUser().getEmail());
 
     logger.info("Order ID {} and its items status updated to {}", orderId, status);
 }
@@ -190,14 +224,19 @@ public void updateOrderStatus(Long orderId, OrderStatus status) {
 
     // ✅ Update status for a specific order item
     @Transactional
+    @RetryOnConflict
     public void updateOrderItemStatus(Long itemId, OrderStatus status) {
         OrderItem item = orderItemRepository.findById(itemId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order item not found"));
+        requirePaymentSettled(item.getStatus(), status);
+        requirePaymentSettled(item.getOrder().getStatus(), status);
 
         item.setStatus(status);
         orderItemRepository.save(item);
 
+        // two items updated at once must not both miss the "all delivered" check
         Order order = item.getOrder();
+        entityManager.lock(order, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
         boolean allDelivered = order.getOrderItems().stream()
                 .allMatch(i -> i.getStatus() == OrderStatus.DELIVERED);
 
@@ -207,10 +246,12 @@ public void updateOrderStatus(Long orderId, OrderStatus status) {
         }
 
         addOrderStatusHistory(order, status);
+        catalogVersions.ordersChanged(order.getUser().getEmail());
     }
 
     // ✅ Cancel individual order item
 @Transactional
+@RetryOnConflict
 public void cancelOrderItem(String email, Long orderId, Long orderItemId) {
     Order order = orderRepository.findById(orderId)
             .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
@@ -224,15 +265,23 @@ public void cancelOrderItem(String email, Long orderId, Long orderItemId) {
             .findFirst()
             .orElseThrow(() -> new ResourceNotFoundException("Order item not found"));
 
+    // the gateway is charging the original amount; the order can change once it has answered
+    if (orderItem.getStatus() == OrderStatus.PENDING) {
+        throw new BadRequestException("This item cannot be cancelled while its payment is being processed.");
+    }
+    if (orderItem.getStatus() == OrderStatus.CANCELLED) {
+        throw new BadRequestException("This item is already cancelled.");
+    }
     if (isNonCancelable(orderItem.getStatus())) {
-        throw new BadRequestException("This item cannot be cancelled after it is shipped or delivered.");
+        throw new BadRequestException("This item cannot be cancelled after it is shipped, delivered or its payment failed.");
     }
 
     // ✅ Restore stock for cancelled item
     Product product = orderItem.getProduct();
     int restoreQty = orderItem.getQuantity();
-    product.setStock(product.getStock() + restoreQty);
-    productRepository.save(product);
+    stockWriter.increment(Map.of(product.getId(), restoreQty));
+    productCache.invalidate(product.getId());
+    catalogVersions.productsChanged();
 
     // ✅ Update order item status
     orderItem.setStatus(OrderStatus.CANCELLED);
@@ -255,6 +304,7 @@ public void cancelOrderItem(String email, Long orderId, Long orderItemId) {
 
     orderRepository.save(order);
     addOrderStatusHistory(order, OrderStatus.CANCELLED);
+    catalogVersions.ordersChanged(email);
 
     logger.info("Order item {} cancelled for order {} and stock restored ({} pcs).", 
                 orderItemId, orderId, restoreQty);
@@ -324,9 +374,24 @@ public void cancelOrderItem(String email, Long orderId, Long orderItemId) {
         historyRepository.save(history);
     }
 
+    // ✅ PENDING and FAILED belong to the payment flow: an unpaid order must not be shipped or delivered
+    private void requirePaymentSettled(OrderStatus current, OrderStatus requested) {
+        if (current == OrderStatus.PENDING) {
+            throw new BadRequestException("The status cannot be changed while the payment is being processed.");
+        }
+        if (current == OrderStatus.FAILED) {
+            throw new BadRequestException("The status cannot be changed after the payment failed.");
+        }
+        if (requested == OrderStatus.PENDING || requested == OrderStatus.FAILED) {
+            throw new BadRequestException("Status " + requested + " is only set by the payment flow.");
+        }
+    }
+
     // ✅ Helper to check non-cancellable statuses
     private boolean isNonCancelable(OrderStatus status) {
-        return EnumSet.of(OrderStatus.SHIPPED, OrderStatus.DELIVERED).contains(status);
+        // a cancelled item has already given its stock back
+        return EnumSet.of(OrderStatus.SHIPPED, OrderStatus.DELIVERED, OrderStatus.FAILED, OrderStatus.CANCELLED)
+                .contains(status);
     }
 
   @Override 
@@ -0,0 +1,31 @@
+package com.shopcart.shopcart_backend.services;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Charges an order without blocking the caller: the result completes the returned future,
+ * typically from the gateway's own callback thread. Picked with {@code shopcart.payments.gateway}.
+ */
+public interface PaymentGateway {
+
+    record PaymentRequest(Long orderId, double amount, String method) {}
+
+    record PaymentResult(boolean approved, String transactionId, String failureReason) {
+
+        public static PaymentResult approved(String transactionId) {
+            return new PaymentResult(true, transactionId, null);
+        }
+
+        public static PaymentResult declined(String reason) {
+            return new PaymentResult(false, null, reason);
+        }
+    }
+
+    // gives back the whole of an approved charge
+    record RefundRequest(Long orderId, String transactionId) {}
+
+    CompletableFuture<PaymentResult> charge(PaymentRequest request);
+
+    // for approvals that arrive after the order stopped waiting for them
+    CompletableFuture<PaymentResult> refund(RefundRequest request);
+}
@@ -0,0 +1,187 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.dto.CacheStatsDTO;
+import com.shopcart.shopcart_backend.dto.ProductResponseDTO;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded LRU cache of product detail responses.
+ * Concurrent misses for the same id share a single load, so a hot product
+ * that drops out of the cache costs one database read, not one per request.
+ */
+@Component
+public class ProductCache {
+
+    private final int maxSize;
+    private final Map<Long, ProductResponseDTO> entries;
+    private final Map<Long, CompletableFuture<ProductResponseDTO>> inFlight = new ConcurrentHashMap<>();
+
+    // bumped on every invalidation so a load that raced with a write is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ProductCache(@Value("${shopcart.cache.product.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ProductResponseDTO> eldest) {
+                if (size() > ProductCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public ProductResponseDTO get(Long id, Supplier<ProductResponseDTO> loader) {
+        ProductResponseDTO cached;
+        synchronized (entries) {
+            cached = entries.get(id);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        CompletableFuture<ProductResponseDTO> mine = new CompletableFuture<>();
+        CompletableFuture<ProductResponseDTO> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        long startGeneration = generation.get();
+        try {
+            loads.increment();
+            ProductResponseDTO loaded = loader.get();
+            if (generation.get() == startGeneration) {
+                synchronized (entries) {
+                    entries.put(id, loaded);
+                }
+            }
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    // ✅ Many products at once: hits from memory, all misses in a single load (ids the loader omits are absent)
+    public Map<Long, ProductResponseDTO> getAll(Collection<Long> ids,
+                                                Function<List<Long>, Map<Long, ProductResponseDTO>> loader) {
+        Map<Long, ProductResponseDTO> found = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        synchronized (entries) {
+            for (Long id : ids) {
+                ProductResponseDTO cached = entries.get(id);
+                if (cached != null) {
+                    found.put(id, cached);
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+        hits.add(found.size());
+        if (missing.isEmpty()) {
+            return found;
+        }
+        misses.add(missing.size());
+
+        long startGeneration = generation.get();
+        loads.increment();
+        Map<Long, ProductResponseDTO> loaded = loader.apply(missing);
+        if (generation.get() == startGeneration) {
+            synchronized (entries) {
+                entries.putAll(loaded);
+            }
+        }
+        found.putAll(loaded);
+        return found;
+    }
+
+    // ✅ Drop a product now, and again once the surrounding transaction commits
+    public void invalidate(Long id) {
+        evict(id);
+        AfterCommit.run(() -> evict(id));
+    }
+
+    // ✅ Drop every product, e.g. when a category they embed was renamed or removed
+    public void invalidateAll() {
+        evictAll();
+        AfterCommit.run(this::evictAll);
+    }
+
+    public CacheStatsDTO stats() {
+        long size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return CacheStatsDTO.builder()
+                .size(size)
+                .maxSize(maxSize)
+                .hits(hitCount)
+                .misses(missCount)
+                .loads(loads.sum())
+                .coalescedLoads(coalesced.sum())
+                .evictions(evictions.sum())
+                .invalidations(invalidations.sum())
+                .hitRatio(total == 0 ? 0.0 : (double) hitCount / total)
+                .build();
+    }
+
+    private void evict(Long id) {
+        generation.incrementAndGet();
+        invalidations.increment();
+        synchronized (entries) {
+            entries.remove(id);
+        }
+    }
+
+    private void evictAll() {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    private ProductResponseDTO await(CompletableFuture<ProductResponseDTO> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
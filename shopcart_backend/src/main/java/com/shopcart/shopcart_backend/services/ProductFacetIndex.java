@@ -0,0 +1,322 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.dto.DiscountDTO;
+import com.shopcart.shopcart_backend.dto.FacetCountDTO;
+import com.shopcart.shopcart_backend.dto.ProductFacetsDTO;
+import com.shopcart.shopcart_backend.dto.ProductFilterDTO;
+import com.shopcart.shopcart_backend.entities.Category;
+import com.shopcart.shopcart_backend.repositories.ProductFacetRow;
+import com.shopcart.shopcart_backend.repositories.ProductRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Columnar, read-only snapshot of the catalog for facet counts.
+ * Every product is one row position across primitive arrays (id, category, effective price, stock)
+ * plus bitsets for the yes/no facets. Prices are effective (discounted) prices, the value the
+ * minPrice/maxPrice filter of /api/products/filter compares, so a facet count matches its results. Filters become bitsets, facets are counted over their
+ * intersection in parallel chunks, and the snapshot is swapped whole whenever the catalog version moves.
+ */
+@Component
+public class ProductFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    // rows per parallel task; a multiple of 64 so chunks never share a bitset word
+    private static final int CHUNK_ROWS = 1 << 14;
+
+    // filter dimensions; each facet is counted with every dimension applied except its own
+    private static final int CATEGORY = 0;
+    private static final int PRICE = 1;
+    private static final int SALE = 2;
+    private static final int STOCK = 3;
+    private static final int SEARCH = 4;
+    private static final int DIMENSIONS = 5;
+
+    private final ProductRepository productRepository;
+    private final DiscountScheduler discountScheduler;
+    private final CategoryRegistry categoryRegistry;
+    private final CatalogVersions catalogVersions;
+    private final ProductSearchIndex searchIndex;
+
+    @Value("${shopcart.facets.price-edges:25,50,100,250,500}")
+    private double[] priceEdges;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Row i describes product ids[i]; ids are ascending. categories[i] is an index into categoryIds,
+     * or categoryIds.length for products without a category.
+     */
+    private record Snapshot(long[] ids, int[] categories, long[] categoryIds, double[] prices, int[] stock,
+                            BitSet discounted, BitSet inStock, String version, Date builtAt) {
+
+        static final Snapshot EMPTY = new Snapshot(new long[0], new int[0], new long[0], new double[0], new int[0],
+                new BitSet(), new BitSet(), "", new Date(0));
+
+        int size() {
+            return ids.length;
+        }
+    }
+
+    public ProductFacetIndex(ProductRepository productRepository, DiscountScheduler discountScheduler,
+                             CategoryRegistry categoryRegistry, CatalogVersions catalogVersions,
+                             ProductSearchIndex searchIndex) {
+        this.productRepository = productRepository;
+        this.discountScheduler = discountScheduler;
+        this.categoryRegistry = categoryRegistry;
+        this.catalogVersions = catalogVersions;
+        this.searchIndex = searchIndex;
+    }
+
+    // ✅ Built at startup, then rebuilt in the background only when products or discounts changed
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${shopcart.facets.refresh-ms:15000}",
+               initialDelayString = "${shopcart.facets.refresh-ms:15000}")
+    @Transactional(readOnly = true)
+    public synchronized void refresh() {
+        String version = catalogVersions.productsETag();
+        if (version.equals(snapshot.version())) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+
+        Columns columns = new Columns();
+        try (Stream<ProductFacetRow> rows = productRepository.streamFacetRows()) {
+            rows.forEach(columns::add);
+        }
+        snapshot = columns.toSnapshot(version);
+        logger.info("Product facet snapshot built: {} products, {} categories in {} ms",
+                snapshot.size(), snapshot.categoryIds().length, System.currentTimeMillis() - started);
+    }
+
+    // the snapshot only changes as a whole, so its build time identifies every count it produces
+    public String snapshotETag() {
+        return "\"facets-" + Long.toString(snapshot.builtAt().getTime(), 36) + "\"";
+    }
+
+    // ✅ Facet counts for the given selection (disjunctive: a facet ignores its own filter)
+    public ProductFacetsDTO facets(ProductFilterDTO filter) {
+        Snapshot s = snapshot;
+        int n = s.size();
+
+        BitSet[] selected = new BitSet[DIMENSIONS];
+        if (filter.getCategoryId() != null) {
+            int ordinal = Arrays.binarySearch(s.categoryIds(), filter.getCategoryId());
+            selected[CATEGORY] = ordinal >= 0 ? scan(n, i -> s.categories()[i] == ordinal) : new BitSet();
+        }
+        if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+            double min = filter.getMinPrice() != null ? filter.getMinPrice() : Double.NEGATIVE_INFINITY;
+            double max = filter.getMaxPrice() != null ? filter.getMaxPrice() : Double.POSITIVE_INFINITY;
+            selected[PRICE] = scan(n, i -> s.prices()[i] >= min && s.prices()[i] <= max);
+        }
+        if (filter.getOnSale() != null) {
+            selected[SALE] = flag(s.discounted(), n, filter.getOnSale());
+        }
+        if (filter.getInStock() != null) {
+            selected[STOCK] = flag(s.inStock(), n, filter.getInStock());
+        }
+        if (filter.getSearch() != null && !filter.getSearch().isBlank()) {
+            BitSet matches = new BitSet(n);
+            for (Long id : searchIndex.search(filter.getSearch(), null)) {
+                int row = Arrays.binarySearch(s.ids(), id);
+                if (row >= 0) matches.set(row);
+            }
+            selected[SEARCH] = matches;
+        }
+
+        BitSet forCategories = intersect(n, selected, CATEGORY);
+        BitSet forPrices = intersect(n, selected, PRICE);
+        BitSet forSale = intersect(n, selected, SALE);
+        BitSet forStock = intersect(n, selected, STOCK);
+        BitSet all = intersect(n, selected, -1);
+
+        return ProductFacetsDTO.builder()
+                .total(all.cardinality())
+                .categories(categoryFacet(s, forCategories))
+                .priceRanges(priceFacet(s, forPrices))
+                .onSale(flagFacet(forSale, s.discounted()))
+                .inStock(flagFacet(forStock, s.inStock()))
+                .snapshotTime(s.builtAt())
+                .build();
+    }
+
+    private List<FacetCountDTO> categoryFacet(Snapshot s, BitSet rows) {
+        int uncategorized = s.categoryIds().length;
+        long[] counts = countBy(s.size(), rows, i -> s.categories()[i], uncategorized + 1);
+
+        List<FacetCountDTO> facet = new ArrayList<>();
+        for (int ordinal = 0; ordinal < uncategorized; ordinal++) {
+            if (counts[ordinal] == 0) continue;
+            long id = s.categoryIds()[ordinal];
+            facet.add(FacetCountDTO.builder()
+                    .value(Long.toString(id))
+                    .label(categoryRegistry.find(id).map(Category::getName).orElse("Category " + id))
+                    .count(counts[ordinal])
+                    .build());
+        }
+        if (counts[uncategorized] > 0) {
+            facet.add(FacetCountDTO.builder().value("none").label("Uncategorized").count(counts[uncategorized]).build());
+        }
+        return facet;
+    }
+
+    private List<FacetCountDTO> priceFacet(Snapshot s, BitSet rows) {
+        double[] edges = priceEdges;
+        long[] counts = countBy(s.size(), rows, i -> bucket(edges, s.prices()[i]), edges.length + 1);
+
+        // every range is listed, so the UI keeps a stable layout as counts drop to zero
+        List<FacetCountDTO> facet = new ArrayList<>();
+        for (int b = 0; b <= edges.length; b++) {
+            double min = b == 0 ? 0 : edges[b - 1];
+            Double max = b < edges.length ? edges[b] : null;
+            facet.add(FacetCountDTO.builder()
+                    .value(format(min) + "-" + (max != null ? format(max) : ""))
+                    .label(max != null ? format(min) + " - " + format(max) : format(min) + "+")
+                    .min(min)
+                    // the filter's maxPrice is inclusive and the edge belongs to the next range
+                    .max(max != null ? Math.nextDown(max) : null)
+                    .count(counts[b])
+                    .build());
+        }
+        return facet;
+    }
+
+    private static List<FacetCountDTO> flagFacet(BitSet rows, BitSet flag) {
+        BitSet yes = (BitSet) rows.clone();
+        yes.and(flag);
+        long yesCount = yes.cardinality();
+        return List.of(
+                FacetCountDTO.builder().value("true").label("Yes").count(yesCount).build(),
+                FacetCountDTO.builder().value("false").label("No").count(rows.cardinality() - yesCount).build());
+    }
+
+    // rows matching every selected dimension except the skipped one
+    private static BitSet intersect(int n, BitSet[] selected, int skip) {
+        BitSet rows = new BitSet(n);
+        rows.set(0, n);
+        for (int d = 0; d < DIMENSIONS; d++) {
+            if (d != skip && selected[d] != null) {
+                rows.and(selected[d]);
+            }
+        }
+        return rows;
+    }
+
+    private static BitSet flag(BitSet column, int n, boolean wanted) {
+        BitSet rows = (BitSet) column.clone();
+        if (!wanted) {
+            rows.flip(0, n);
+        }
+        return rows;
+    }
+
+    // ✅ Parallel predicate scan; each chunk fills its own words of the result
+    private static BitSet scan(int n, IntPredicate predicate) {
+        long[] words = new long[(n + 63) >>> 6];
+        IntStream.range(0, chunks(n)).parallel().forEach(chunk -> {
+            int end = Math.min(n, (chunk + 1) * CHUNK_ROWS);
+            for (int i = chunk * CHUNK_ROWS; i < end; i++) {
+                if (predicate.test(i)) {
+                    words[i >>> 6] |= 1L << i;
+                }
+            }
+        });
+        return BitSet.valueOf(words);
+    }
+
+    // ✅ Parallel group-by-count over the set rows; per-chunk counters are summed at the end
+    private static long[] countBy(int n, BitSet rows, IntUnaryOperator key, int keys) {
+        return IntStream.range(0, chunks(n)).parallel()
+                .mapToObj(chunk -> {
+                    long[] counts = new long[keys];
+                    int end = Math.min(n, (chunk + 1) * CHUNK_ROWS);
+                    for (int i = rows.nextSetBit(chunk * CHUNK_ROWS); i >= 0 && i < end; i = rows.nextSetBit(i + 1)) {
+                        counts[key.applyAsInt(i)]++;
+                    }
+                    return counts;
+                })
+                .reduce(new long[keys], (a, b) -> {
+                    long[] sum = new long[keys];
+                    for (int k = 0; k < keys; k++) sum[k] = a[k] + b[k];
+                    return sum;
+                });
+    }
+
+    private static int chunks(int n) {
+        return (n + CHUNK_ROWS - 1) / CHUNK_ROWS;
+    }
+
+    // [0, e0), [e0, e1), ..., [eLast, inf)
+    private static int bucket(double[] edges, double price) {
+        int found = Arrays.binarySearch(edges, price);
+        return found >= 0 ? found + 1 : -found - 1;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    // growable columns filled from the row stream
+    private final class Columns {
+        private long[] ids = new long[1024];
+        private long[] rawCategories = new long[1024];
+        private double[] prices = new double[1024];
+        private int[] stock = new int[1024];
+        private final BitSet discounted = new BitSet();
+        private final BitSet inStock = new BitSet();
+        private int size;
+
+        void add(ProductFacetRow row) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                rawCategories = Arrays.copyOf(rawCategories, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                stock = Arrays.copyOf(stock, capacity);
+            }
+            DiscountDTO discount = discountScheduler.activeDiscount(row.getId());
+            ids[size] = row.getId();
+            rawCategories[size] = row.getCategoryId() != null ? row.getCategoryId() : Long.MIN_VALUE;
+            prices[size] = DiscountScheduler.applyDiscount(row.getPrice(), discount);
+            stock[size] = row.getStock();
+            if (discount != null) discounted.set(size);
+            if (row.getStock() > 0) inStock.set(size);
+            size++;
+        }
+
+        Snapshot toSnapshot(String version) {
+            long[] categoryIds = Arrays.stream(rawCategories, 0, size)
+                    .filter(id -> id != Long.MIN_VALUE)
+                    .distinct()
+                    .sorted()
+                    .toArray();
+            int[] categories = new int[size];
+            for (int i = 0; i < size; i++) {
+                categories[i] = rawCategories[i] == Long.MIN_VALUE
+                        ? categoryIds.length
+                        : Arrays.binarySearch(categoryIds, rawCategories[i]);
+            }
+            return new Snapshot(Arrays.copyOf(ids, size), categories, categoryIds,
+                    Arrays.copyOf(prices, size), Arrays.copyOf(stock, size),
+                    discounted, inStock, version, new Date());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.dto.CacheStatsDTO;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory hot tier for product image bytes, bounded by total size rather than entry count.
+ * Only small files (thumbnails, cards) are admitted; large originals are streamed from disk.
+ * Image files are never rewritten in place, so an entry stays valid until its file is deleted.
+ */
+@Component
+public class ProductImageCache {
+
+    public record CachedImage(byte[] bytes, long lastModified) {}
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<Path, CachedImage> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ProductImageCache(@Value("${shopcart.images.hot-cache-bytes:67108864}") long maxBytes,
+                             @Value("${shopcart.images.hot-cache-max-entry-bytes:524288}") long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public boolean admits(long fileSize) {
+        return fileSize <= maxEntryBytes && fileSize <= maxBytes;
+    }
+
+    // ✅ Hot path: no disk access at all on a hit
+    public CachedImage find(Path file) {
+        synchronized (entries) {
+            CachedImage cached = entries.get(file);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    // two concurrent misses may both read a small file; that is cheaper than holding a lock over disk I/O
+    public CachedImage load(Path file, long lastModified) throws IOException {
+        loads.increment();
+        CachedImage loaded = new CachedImage(Files.readAllBytes(file), lastModified);
+        synchronized (entries) {
+            CachedImage previous = entries.put(file, loaded);
+            if (previous != null) {
+                currentBytes -= previous.bytes().length;
+            }
+            currentBytes += loaded.bytes().length;
+            trim();
+        }
+        return loaded;
+    }
+
+    // ✅ Called whenever an image file is deleted
+    public void invalidate(Path file) {
+        synchronized (entries) {
+            CachedImage removed = entries.remove(file.toAbsolutePath().normalize());
+            if (removed != null) {
+                currentBytes -= removed.bytes().length;
+                invalidations.increment();
+            }
+        }
+    }
+
+    // size and maxSize are in bytes for this cache
+    public CacheStatsDTO stats() {
+        long size;
+        synchronized (entries) {
+            size = currentBytes;
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return CacheStatsDTO.builder()
+                .size(size)
+                .maxSize(maxBytes)
+                .hits(hitCount)
+                .misses(missCount)
+                .loads(loads.sum())
+                .evictions(evictions.sum())
+                .invalidations(invalidations.sum())
+                .hitRatio(total == 0 ? 0.0 : (double) hitCount / total)
+                .build();
+    }
+
+    // least recently served entries go first
+    private void trim() {
+        Iterator<Map.Entry<Path, CachedImage>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().getValue().bytes().length;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+}
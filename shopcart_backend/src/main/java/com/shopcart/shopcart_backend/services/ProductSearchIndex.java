@@ -0,0 +1,198 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.entities.Product;
+import com.shopcart.shopcart_backend.repositories.ProductRepository;
+import com.shopcart.shopcart_backend.repositories.ProductSearchRow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over product name and description.
+ * Terms are lower-cased and accent-folded; every query term may match as a prefix,
+ * and results are ranked by a tf-idf style score with name hits weighted higher.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final double PREFIX_MATCH_FACTOR = 0.6;
+
+    private final ProductRepository productRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (productId -> weighted term frequency); sorted so prefixes are a range scan
+    private NavigableMap<String, Map<Long, Double>> postings = new TreeMap<>();
+    private Map<Long, IndexedProduct> documents = new HashMap<>();
+
+    private record IndexedProduct(Set<String> terms, Long categoryId) {}
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    // ✅ Full rebuild from the database at startup
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        NavigableMap<String, Map<Long, Double>> newPostings = new TreeMap<>();
+        Map<Long, IndexedProduct> newDocuments = new HashMap<>();
+
+        try (Stream<ProductSearchRow> rows = productRepository.streamSearchRows()) {
+            rows.forEach(row -> add(newPostings, newDocuments,
+                    row.getId(), row.getName(), row.getDescription(), row.getCategoryId()));
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            documents = newDocuments;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Product search index built: {} products, {} terms in {} ms",
+                newDocuments.size(), newPostings.size(), System.currentTimeMillis() - started);
+    }
+
+    // ✅ Incremental update after a product is created or edited
+    public void index(Product product) {
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        lock.writeLock().lock();
+        try {
+            remove(postings, documents, product.getId());
+            add(postings, documents, product.getId(), product.getName(), product.getDescription(), categoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            remove(postings, documents, productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns ids of products matching every query term (as a word or word prefix),
+     * best match first. A null categoryId searches all categories.
+     */
+    public List<Long> search(String query, Long categoryId) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int totalDocs = Math.max(documents.size(), 1);
+            Map<Long, Double> scores = null;
+
+            for (String queryTerm : new LinkedHashSet<>(queryTerms)) {
+                Map<Long, Double> termScores = new HashMap<>();
+                for (Map.Entry<String, Map<Long, Double>> entry : prefixRange(queryTerm).entrySet()) {
+                    Map<Long, Double> docs = entry.getValue();
+                    double idf = Math.log(1.0 + (double) totalDocs / docs.size());
+                    double factor = entry.getKey().equals(queryTerm) ? 1.0 : PREFIX_MATCH_FACTOR;
+                    docs.forEach((id, tf) -> termScores.merge(id, tf * idf * factor, Math::max));
+                }
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // every query term has to match
+                    Map<Long, Double> previous = scores;
+                    scores = new HashMap<>();
+                    for (Map.Entry<Long, Double> hit : termScores.entrySet()) {
+                        Double before = previous.get(hit.getKey());
+                        if (before != null) {
+                            scores.put(hit.getKey(), before + hit.getValue());
+                        }
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            Map<Long, Double> ranked = scores;
+            return ranked.keySet().stream()
+                    .filter(id -> categoryId == null || categoryId.equals(documents.get(id).categoryId()))
+                    .sorted(Comparator.<Long>comparingDouble(ranked::get).reversed()
+                            .thenComparing(Comparator.naturalOrder()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(NON_WORD.split(folded.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private SortedMap<String, Map<Long, Double>> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static void add(NavigableMap<String, Map<Long, Double>> postings, Map<Long, IndexedProduct> documents,
+                            Long id, String name, String description, Long categoryId) {
+        Map<String, Double> weights = new HashMap<>();
+        tokenize(name).forEach(term -> weights.merge(term, NAME_WEIGHT, Double::sum));
+        tokenize(description).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Double::sum));
+
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, weight));
+        documents.put(id, new IndexedProduct(weights.keySet(), categoryId));
+    }
+
+    private static void remove(NavigableMap<String, Map<Long, Double>> postings, Map<Long, IndexedProduct> documents,
+                               Long id) {
+        IndexedProduct existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms()) {
+            Map<Long, Double> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
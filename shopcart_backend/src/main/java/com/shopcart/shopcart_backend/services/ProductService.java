@@ -1,5 +1,8 @@
 package com.shopcart.shopcart_backend.services;
 
+import com.shopcart.shopcart_backend.dto.CursorPageDTO;
+import com.shopcart.shopcart_backend.dto.PageResponseDTO;
+import com.shopcart.shopcart_backend.dto.ProductFilterDTO;
 import com.shopcart.shopcart_backend.dto.ProductRequestDTO;
 import com.shopcart.shopcart_backend.dto.ProductResponseDTO;
 import com.shopcart.shopcart_backend.entities.Discount;
@@ -7,17 +10,30 @@ import com.shopcart.shopcart_backend.entities.Product;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import java.io.IOException;
 import java.util.Date;
+import java.util.function.Consumer;
 
 public interface ProductService {
     ProductResponseDTO addProduct(ProductRequestDTO productRequest, MultipartFile imageFile) throws IOException;
 
-    List<ProductResponseDTO> getAllProducts();
+    CursorPageDTO<ProductResponseDTO> getProductPage(String cursor, int limit);
+
+    // Streams the whole catalog to the sink without holding it in memory
+    void streamAllProducts(Consumer<ProductResponseDTO> sink);
+
+    // Same, limited to the products one admin added
+    void streamProductsAddedBy(Long adminId, Consumer<ProductResponseDTO> sink);
 
     ProductResponseDTO getProductById(Long id);
+    // cached where possible, the rest in one query; unknown ids are left out
+    Map<Long, ProductResponseDTO> getProductsByIds(Collection<Long> ids);
+
+    List<ProductResponseDTO> getProductsAddedBy(String email);
 
     ProductResponseDTO updateProduct(Long id, ProductRequestDTO productRequest, MultipartFile imageFile)
             throws IOException; // updated signature
@@ -33,5 +49,8 @@ public interface ProductService {
 
     double getEffectivePrice(Product product);
 
-     List<ProductResponseDTO> getProducts(Long categoryId, String search, String sortBy, int page, int size);
+    ProductResponseDTO toResponse(Product product);
+
+    // Filtered, sorted page with totals; an unsorted search is returned in relevance order
+    PageResponseDTO<ProductResponseDTO> getProducts(ProductFilterDTO filter, List<String> sort, int page, int size);
 }
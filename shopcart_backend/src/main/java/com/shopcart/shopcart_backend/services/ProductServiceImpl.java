@@ -1,15 +1,20 @@
 package com.shopcart.shopcart_backend.services;
 
+import com.shopcart.shopcart_backend.config.RetryOnConflict;
+import com.shopcart.shopcart_backend.dto.CursorPageDTO;
+import com.shopcart.shopcart_backend.dto.PageResponseDTO;
+import com.shopcart.shopcart_backend.dto.ProductFilterDTO;
 import com.shopcart.shopcart_backend.dto.ProductRequestDTO;
 import com.shopcart.shopcart_backend.dto.ProductResponseDTO;
 import com.shopcart.shopcart_backend.entities.Discount;
 import com.shopcart.shopcart_backend.entities.Product;
 import com.shopcart.shopcart_backend.entities.Role;
 import com.shopcart.shopcart_backend.entities.User;
+import com.shopcart.shopcart_backend.exception.BadRequestException;
 import com.shopcart.shopcart_backend.exception.ResourceNotFoundException;
-import com.shopcart.shopcart_backend.repositories.CategoryRepository;
 import com.shopcart.shopcart_backend.repositories.DiscountRepository;
 import com.shopcart.shopcart_backend.repositories.ProductRepository;
+import com.shopcart.shopcart_backend.repositories.ProductSpecifications;
 import com.shopcart.shopcart_backend.repositories.UserRepository;
 import com.shopcart.shopcart_backend.security.CustomUserDetails;
 
@@ -17,48 +22,93 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 
 
 import org.springframework.security.core.Authentication;
 
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.transaction.annotation.Transactional;
 
 
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.Comparator;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import com.shopcart.shopcart_backend.entities.Category;
 
 import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int STREAM_CLEAR_INTERVAL = 500;
+    // searches consider at most this many index hits, the most relevant first, whatever the sort
+    private static final int MAX_RANKED_CANDIDATES = 2000;
+
+    private static final Map<String, String> SORTABLE_FIELDS = Map.of(
+            "price", "price",
+            "name", "name",
+            "stock", "stock",
+            "newest", "createdAt",
+            "createdat", "createdAt",
+            "id", "id");
+    private static final Map<String, String> LEGACY_SORTS = Map.of(
+            "priceasc", "price,asc",
+            "pricedesc", "price,desc",
+            "nameasc", "name,asc",
+            "namedesc", "name,desc");
+
     @Autowired
     private ProductRepository productRepository;
     @Autowired
     private UserRepository userRepository;
     @Autowired
     private DiscountRepository discountRepository;
-    @Autowired 
-    private CategoryRepository categoryRepository;
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+    @Autowired
+    private ProductSearchIndex searchIndex;
+    @Autowired
+    private ProductSuggestIndex suggestIndex;
+    @Autowired
+    private DiscountScheduler discountScheduler;
+    @Autowired
+    private ProductCache productCache;
+    @Autowired
+    private StockReservationLedger reservationLedger;
+    @Autowired
+    private CatalogVersions catalogVersions;
+    @Autowired
+    private ImageVariantService imageVariantService;
+    @Autowired
+    private ImageStore imageStore;
+    @PersistenceContext
+    private EntityManager entityManager;
     
     @Override
 public ProductResponseDTO addProduct(ProductRequestDTO request, MultipartFile image) throws IOException {
@@ -73,18 +123,14 @@ public ProductResponseDTO addProduct(ProductRequestDTO request, MultipartFile im
     // ✅ Fetch and set category if provided
     Category category = null;
     if (request.getCategoryId() != null) {
-        category = categoryRepository.findById(request.getCategoryId())
+        category = categoryRegistry.find(request.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
     }
 
-    // ✅ Handle image upload
+    // ✅ Handle image upload (deduplicated by content)
     String imageUrl = null;
     if (image != null && !image.isEmpty()) {
-        String fileName = UUID.randomUUID() + "_" + StringUtils.cleanPath(image.getOriginalFilename());
-        Path uploadPath = Paths.get(uploadDir);
-        Files.createDirectories(uploadPath);
-        Files.copy(image.getInputStream(), uploadPath.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
-        imageUrl = "product-images/" + fileName;
+        imageUrl = imageStore.store(image);
     }
 
     // ✅ Include category when building product
@@ -98,27 +144,150 @@ public ProductResponseDTO addProduct(ProductRequestDTO request, MultipartFile im
             .category(category) // <-- 🔥 IMPORTANT LINE
             .build();
 
-    Product saved = productRepository.save(product);
-    return ProductResponseDTO.from(saved);
+    Product saved;
+    try {
+        saved = productRepository.save(product);
+    } catch (RuntimeException e) {
+        imageStore.release(imageUrl);
+        throw e;
+    }
+    searchIndex.index(saved);
+    suggestIndex.index(saved);
+    catalogVersions.productsChanged();
+    // ✅ Resized variants are built in the background; the response serves the original until then
+    if (imageUrl != null) {
+        String sourceUrl = imageUrl;
+        AfterCommit.run(() -> imageVariantService.generateVariants(saved.getId(), sourceUrl));
+    }
+    return toResponse(saved);
 }
 
 
     @Override
-    public List<ProductResponseDTO> getAllProducts() {
-        return productRepository.findAll()
-                .stream()
-                .map(ProductResponseDTO::from)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductResponseDTO> getProductPage(String cursor, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        long afterId = decodeCursor(cursor);
+
+        // fetch one extra row to know whether another page exists
+        List<Product> rows = productRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<Product> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        List<ProductResponseDTO> items = toResponses(page);
+
+        return CursorPageDTO.<ProductResponseDTO>builder()
+                .items(items)
+                .nextCursor(hasMore ? encodeCursor(page.get(page.size() - 1).getId()) : null)
+                .hasMore(hasMore)
+                .limit(pageSize)
+                .count(items.size())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllProducts(Consumer<ProductResponseDTO> sink) {
+        try (Stream<Product> products = productRepository.streamAllOrderById()) {
+            drain(products, sink);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamProductsAddedBy(Long adminId, Consumer<ProductResponseDTO> sink) {
+        try (Stream<Product> products = productRepository.streamByAddedByOrderById(adminId)) {
+            drain(products, sink);
+        }
+    }
+
+    private void drain(Stream<Product> products, Consumer<ProductResponseDTO> sink) {
+        int[] seen = {0};
+        products.forEach(product -> {
+            sink.accept(toResponse(product));
+            // drop already-written rows from the persistence context so memory stays flat
+            if (++seen[0] % STREAM_CLEAR_INTERVAL == 0) {
+                entityManager.clear();
+            }
+        });
+    }
+
+    private String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("id:" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith("id:")) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return Long.parseLong(decoded.substring(3));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
     }
 
     @Override
     public ProductResponseDTO getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
-        return ProductResponseDTO.from(product);
+        ProductResponseDTO cached = productCache.get(id, () -> {
+            Product product = productRepository.findWithCategoryById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
+            return toResponse(product);
+        });
+        return withAvailability(cached);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, ProductResponseDTO> getProductsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, ProductResponseDTO> cached = productCache.getAll(ids,
+                missing -> productRepository.findByIdIn(missing).stream()
+                        .collect(Collectors.toMap(Product::getId, this::toResponse)));
+        Map<Long, ProductResponseDTO> result = new LinkedHashMap<>();
+        cached.forEach((id, dto) -> result.put(id, withAvailability(dto)));
+        return result;
+    }
+
+    // holds change with every cart click, so availability is read fresh on a copy rather than cached
+    private ProductResponseDTO withAvailability(ProductResponseDTO cached) {
+        return cached.toBuilder()
+                .availableStock(reservationLedger.available(cached.getId(), cached.getStock()))
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductResponseDTO> getProductsAddedBy(String email) {
+        User admin = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("Admin not found"));
+        return toResponses(productRepository.findByAddedBy(admin));
+    }
+
+    // ✅ Read model: products arrive with their category, prices come from the in-memory discount table
+    @Override
+    public ProductResponseDTO toResponse(Product product) {
+        ProductResponseDTO response = ProductResponseDTO.from(product, discountScheduler.activeDiscount(product.getId()));
+        response.setAvailableStock(reservationLedger.available(product.getId(), product.getStock()));
+        return response;
+    }
+
+    private List<ProductResponseDTO> toResponses(List<Product> products) {
+        return products.stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public void deleteProduct(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
@@ -131,9 +300,21 @@ public ProductResponseDTO addProduct(ProductRequestDTO request, MultipartFile im
         }
 
         productRepository.delete(product);
+        // flushed here, so a product still referenced by orders, carts or discounts fails before anything else
+        productRepository.flush();
+        imageStore.release(product.getImageUrl());
+        AfterCommit.run(() -> {
+            searchIndex.remove(id);
+            suggestIndex.remove(id);
+            productCache.invalidate(id);
+        });
+        catalogVersions.productsChanged();
     }
 
+    // ✅ Versioned: a concurrent edit makes this re-read the product and apply the request again
     @Override
+    @Transactional
+    @RetryOnConflict
     public ProductResponseDTO updateProduct(Long id, ProductRequestDTO request, MultipartFile imageFile)
         throws IOException {
 
@@ -152,35 +333,36 @@ public ProductResponseDTO addProduct(ProductRequestDTO request, MultipartFile im
 
     // ✅ handle category update (if provided)
     if (request.getCategoryId() != null) {
-        Category category = categoryRepository.findById(request.getCategoryId())
+        Category category = categoryRegistry.find(request.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + request.getCategoryId()));
         existing.setCategory(category);
     }
 
     // ✅ handle image replacement
+    String previousImageUrl = null;
     if (imageFile != null && !imageFile.isEmpty()) {
-        // delete old image
-        if (existing.getImageUrl() != null) {
-            Path oldImagePath = Paths.get(uploadDir, existing.getImageUrl().replace("product-images/", ""));
-            Files.deleteIfExists(oldImagePath);
-        }
-
-        // save new image
-        String originalFilename = imageFile.getOriginalFilename() != null ? imageFile.getOriginalFilename() : "unknown.jpg";
-        String cleanName = StringUtils.cleanPath(originalFilename);
-        String fileName = UUID.randomUUID() + "_" + cleanName;
-
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-
-        Files.copy(imageFile.getInputStream(), uploadPath.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
-        existing.setImageUrl("product-images/" + fileName);
+        previousImageUrl = existing.getImageUrl();
+        imageVariantService.deleteVariants(existing);
+        existing.setImageUrl(imageStore.store(imageFile));
     }
 
     Product updated = productRepository.save(existing);
-    return ProductResponseDTO.from(updated);
+    // the new upload took its own reference, so the old one is dropped even when the content is the same;
+    // file deletions and index updates wait for the commit, since a lost race or a retry rolls this back
+    if (previousImageUrl != null) {
+        imageStore.release(previousImageUrl);
+    }
+    AfterCommit.run(() -> {
+        searchIndex.index(updated);
+        suggestIndex.index(updated);
+        productCache.invalidate(id);
+    });
+    catalogVersions.productsChanged();
+    if (imageFile != null && !imageFile.isEmpty()) {
+        String sourceUrl = updated.getImageUrl();
+        AfterCommit.run(() -> imageVariantService.generateVariants(id, sourceUrl));
+    }
+    return toResponse(updated);
 }
 
 
@@ -215,7 +397,11 @@ public ProductResponseDTO addProduct(ProductRequestDTO request, MultipartFile im
                 .active(true)
                 .build();
 
-        return discountRepository.save(discount);
+        Discount saved = discountRepository.save(discount);
+        discountScheduler.schedule(saved);
+        productCache.invalidate(productId);
+        catalogVersions.productsChanged();
+        return saved;
     }
 
     // ✅ Update an existing discount
@@ -231,7 +417,11 @@ public ProductResponseDTO addProduct(ProductRequestDTO request, MultipartFile im
         if (endDate != null)
             discount.setEndDate(endDate);
 
-        return discountRepository.save(discount);
+        Discount saved = discountRepository.save(discount);
+        discountScheduler.schedule(saved);
+        productCache.invalidate(productId);
+        catalogVersions.productsChanged();
+        return saved;
     }
 
 @Override
@@ -243,69 +433,159 @@ public void removeDiscount(Long productId) {
                 discount.setEndDate(new Date()); // optional: set end date to now
                 discountRepository.save(discount);
             });
+    discountScheduler.unschedule(productId);
+    productCache.invalidate(productId);
+    catalogVersions.productsChanged();
 }
 
 
+    @Override
     public double getEffectivePrice(Product product) {
-    if (product == null) return 0.0;
-
-    Date now = new Date();
-
-    return product.getDiscounts().stream()
-            .filter(Discount::isActive)
-            .filter(d -> {
-                Date start = d.getStartDate();
-                Date end = d.getEndDate();
-                boolean withinStart = (start == null) || !now.before(start);
-                boolean withinEnd = (end == null) || !now.after(end);
-                return withinStart && withinEnd;
-            })
-            .findFirst()
-            .map(d -> {
-                double price = product.getPrice();
-                return price - (price * d.getPercentage() / 100);
-            })
-            .orElse(product.getPrice());
-}
+        return discountScheduler.effectivePrice(product);
+    }
+
 @Override
-public List<ProductResponseDTO> getProducts(Long categoryId, String search, String sortBy, int page, int size) {
-
-    Pageable pageable = PageRequest.of(page, size);
-
-    // Sort logic
-    if ("priceAsc".equalsIgnoreCase(sortBy)) {
-        pageable = PageRequest.of(page, size, Sort.by("price").ascending());
-    } else if ("priceDesc".equalsIgnoreCase(sortBy)) {
-        pageable = PageRequest.of(page, size, Sort.by("price").descending());
-    } else if ("nameAsc".equalsIgnoreCase(sortBy)) {
-        pageable = PageRequest.of(page, size, Sort.by("name").ascending());
-    } else if ("nameDesc".equalsIgnoreCase(sortBy)) {
-        pageable = PageRequest.of(page, size, Sort.by("name").descending());
-    }
-
-    Page<Product> productPage;
-
-    if (categoryId != null && search != null && !search.isEmpty()) {
-        // ✅ Filter by category + search
-        productPage = productRepository.findByCategoryIdAndNameContainingIgnoreCase(categoryId, search, pageable);
-    } else if (categoryId != null) {
-        // ✅ Filter by category only
-        productPage = productRepository.findByCategoryId(categoryId, pageable);
-    } else if (search != null && !search.isEmpty()) {
-        // ✅ Search by name only
-        productPage = productRepository.findByNameContainingIgnoreCase(search, pageable);
-    } else {
-        // ✅ All products
-        productPage = productRepository.findAll(pageable);
-    }
-
-    // Convert to DTO
-    return productPage.getContent()
-        .stream()
-        .map(ProductResponseDTO::from)
-        .toList();
+@Transactional(readOnly = true)
+public PageResponseDTO<ProductResponseDTO> getProducts(ProductFilterDTO filter, List<String> sort, int page, int size) {
+    int pageNumber = Math.max(page, 0);
+    int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    Sort order = parseSort(sort);
+    Specification<Product> spec = toSpecification(filter);
+
+    if (filter.getSearch() != null && !filter.getSearch().isBlank()) {
+        // ✅ Full-text search (optionally within a category) served by the in-memory index
+        List<Long> matches = searchIndex.search(filter.getSearch(), filter.getCategoryId());
+        if (matches.isEmpty()) {
+            return toPage(List.of(), pageNumber, pageSize, 0, order);
+        }
+        if (order.isUnsorted()) {
+            return rankedPage(matches, spec, filter, pageNumber, pageSize);
+        }
+        // sorted by a column: the best candidates are re-sorted, so the IN list stays bounded
+        spec = spec.and(ProductSpecifications.idIn(topCandidates(matches)));
+    }
 
+    // id last, so rows with equal sort keys keep a stable order across pages
+    Sort stable = order.getOrderFor("id") != null ? order : order.and(Sort.by("id"));
+    Page<Product> result = productRepository.findAll(spec, PageRequest.of(pageNumber, pageSize, stable));
+    return toPage(toResponses(result.getContent()), pageNumber, pageSize, result.getTotalElements(), stable);
 }
 
+    private Specification<Product> toSpecification(ProductFilterDTO filter) {
+        Date now = new Date();
+        List<Specification<Product>> predicates = new ArrayList<>();
+        if (filter.getCategoryId() != null) {
+            predicates.add(ProductSpecifications.inCategory(filter.getCategoryId()));
+        }
+        if (filter.getMinPrice() != null) {
+            predicates.add(ProductSpecifications.priceAtLeast(filter.getMinPrice(), now));
+        }
+        if (filter.getMaxPrice() != null) {
+            predicates.add(ProductSpecifications.priceAtMost(filter.getMaxPrice(), now));
+        }
+        if (filter.getInStock() != null) {
+            predicates.add(ProductSpecifications.inStock(filter.getInStock()));
+        }
+        if (filter.getOnSale() != null) {
+            predicates.add(ProductSpecifications.onSale(filter.getOnSale(), now));
+        }
+        return Specification.allOf(predicates);
+    }
+
+    // Accepts "price,desc", "price,desc;name" or repeated sort params, plus the old priceAsc/nameDesc style values
+    static Sort parseSort(List<String> sortParams) {
+        List<Sort.Order> orders = new ArrayList<>();
+        if (sortParams != null) {
+            for (String param : sortParams) {
+                for (String token : param.split("[,;]")) {
+                    String key = token.trim();
+                    if (key.isEmpty()) continue;
+
+                    if (key.equalsIgnoreCase("asc") || key.equalsIgnoreCase("desc")) {
+                        if (orders.isEmpty()) {
+                            throw new BadRequestException("Sort direction without a field: " + key);
+                        }
+                        Sort.Order last = orders.remove(orders.size() - 1);
+                        orders.add(new Sort.Order(Sort.Direction.fromString(key), last.getProperty()));
+                        continue;
+                    }
+
+                    String legacy = LEGACY_SORTS.get(key.toLowerCase(Locale.ROOT));
+                    if (legacy != null) {
+                        String[] parts = legacy.split(",");
+                        orders.add(new Sort.Order(Sort.Direction.fromString(parts[1]), parts[0]));
+                        continue;
+                    }
+
+                    String property = SORTABLE_FIELDS.get(key.toLowerCase(Locale.ROOT));
+                    if (property == null) {
+                        throw new BadRequestException("Cannot sort by " + key + ", use one of " + SORTABLE_FIELDS.keySet());
+                    }
+                    orders.add(Sort.Order.asc(property));
+                }
+            }
+        }
+        return Sort.by(orders);
+    }
+
+    private PageResponseDTO<ProductResponseDTO> toPage(List<ProductResponseDTO> items, int page, int size,
+                                                       long total, Sort sort) {
+        int totalPages = (int) ((total + size - 1) / size);
+        return PageResponseDTO.<ProductResponseDTO>builder()
+                .items(items)
+                .page(page)
+                .size(size)
+                .totalElements(total)
+                .totalPages(totalPages)
+                .hasNext(page + 1 < totalPages)
+                .sort(sort.stream()
+                        .map(o -> o.getProperty() + "," + o.getDirection().name().toLowerCase(Locale.ROOT))
+                        .toList())
+                .build();
+    }
+
+    // ✅ Relevance order: the database only filters the ranked candidates, the index decides the order
+    private PageResponseDTO<ProductResponseDTO> rankedPage(List<Long> rankedIds, Specification<Product> spec,
+                                                           ProductFilterDTO filter, int page, int size) {
+        List<Long> candidates = topCandidates(rankedIds);
+        boolean filteredInDatabase = filter.getMinPrice() != null || filter.getMaxPrice() != null
+                || filter.getInStock() != null || filter.getOnSale() != null;
+        List<Long> ids = filteredInDatabase
+                ? matchingIds(spec.and(ProductSpecifications.idIn(candidates)), candidates)
+                : candidates;
+        return toPage(toResponses(loadInRankOrder(ids, page, size)), page, size, ids.size(), Sort.unsorted());
+    }
+
+    private static List<Long> topCandidates(List<Long> rankedIds) {
+        return rankedIds.size() > MAX_RANKED_CANDIDATES ? rankedIds.subList(0, MAX_RANKED_CANDIDATES) : rankedIds;
+    }
+
+    // ids only, kept in rank order
+    private List<Long> matchingIds(Specification<Product> spec, List<Long> rankedIds) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(root.get("id")).where(spec.toPredicate(root, query, cb));
+        Set<Long> matching = new HashSet<>(entityManager.createQuery(query).getResultList());
+        return rankedIds.stream().filter(matching::contains).toList();
+    }
+
+    // ✅ Relevance order: page over the ranked ids, then load just that slice
+    private List<Product> loadInRankOrder(List<Long> rankedIds, int page, int size) {
+        int from = Math.min(page * size, rankedIds.size());
+        int to = Math.min(from + size, rankedIds.size());
+        List<Long> slice = rankedIds.subList(from, to);
+        if (slice.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Product> byId = productRepository.findByIdIn(slice).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        return slice.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
 
 }
@@ -0,0 +1,450 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.dto.SuggestionDTO;
+import com.shopcart.shopcart_backend.entities.Category;
+import com.shopcart.shopcart_backend.entities.Product;
+import com.shopcart.shopcart_backend.repositories.OrderItemRepository;
+import com.shopcart.shopcart_backend.repositories.ProductRepository;
+import com.shopcart.shopcart_backend.repositories.ProductSales;
+import com.shopcart.shopcart_backend.repositories.ProductSearchRow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Type-ahead suggestions over product and category names.
+ * Names are stored in a character trie, once in full and once from every later word,
+ * so "shoes" also finds "Red Running Shoes". Every node keeps its best few entries
+ * pre-ranked by popularity (units sold), so a lookup is one walk down the trie.
+ */
+@Component
+public class ProductSuggestIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSuggestIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    public static final int TOP_K = 10;
+    private static final int MAX_KEY_LENGTH = 40;
+    private static final int MAX_WORD_KEYS = 8;
+    // a match on the start of the whole name beats a match on a later word
+    private static final double WORD_MATCH_FACTOR = 0.5;
+    private static final double CATEGORY_BOOST = 1.5;
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Ranked[] NO_RANKED = new Ranked[0];
+
+    private enum Kind { PRODUCT, CATEGORY }
+
+    private static final class Entry {
+        final Kind kind;
+        final long id;
+        final String text;
+        final Long categoryId;
+        final List<String> keys;
+        long popularity;
+
+        Entry(Kind kind, long id, String text, Long categoryId, List<String> keys, long popularity) {
+            this.kind = kind;
+            this.id = id;
+            this.text = text;
+            this.categoryId = categoryId;
+            this.keys = keys;
+            this.popularity = popularity;
+        }
+
+        double score() {
+            double base = popularity + 1.0;
+            return kind == Kind.CATEGORY ? base * CATEGORY_BOOST : base;
+        }
+    }
+
+    // an entry whose key ends at a node, with the factor for how it matched
+    private record Terminal(Entry entry, double factor) {}
+
+    private record Ranked(Entry entry, double rank) {}
+
+    private static final class Node {
+        char[] labels = NO_LABELS;
+        Node[] children = NO_CHILDREN;
+        List<Terminal> terminals = List.of();
+        Ranked[] top = NO_RANKED;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            Node created = new Node();
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newLabels[at] = c;
+            newChildren[at] = created;
+            System.arraycopy(labels, at, newLabels, at + 1, labels.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            labels = newLabels;
+            children = newChildren;
+            return created;
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            if (i < 0) return;
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(labels, i + 1, newLabels, i, labels.length - i - 1);
+            System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        boolean isEmpty() {
+            return labels.length == 0 && terminals.isEmpty();
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node root = new Node();
+    private final Map<Long, Entry> products = new HashMap<>();
+    private final Map<Long, Entry> categories = new HashMap<>();
+
+    public ProductSuggestIndex(ProductRepository productRepository, OrderItemRepository orderItemRepository,
+                               CategoryRegistry categoryRegistry) {
+        this.productRepository = productRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.categoryRegistry = categoryRegistry;
+    }
+
+    // ✅ Full build at startup: names from one projection query, popularity from one aggregate
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        Map<Long, Long> sales = new HashMap<>();
+        for (ProductSales row : orderItemRepository.sumQuantityByProduct()) {
+            sales.put(row.getProductId(), row.getQuantity());
+        }
+
+        Node newRoot = new Node();
+        Map<Long, Entry> newProducts = new HashMap<>();
+        Map<Long, Entry> newCategories = new HashMap<>();
+        try (Stream<ProductSearchRow> rows = productRepository.streamSearchRows()) {
+            rows.forEach(row -> {
+                Entry entry = entry(Kind.PRODUCT, row.getId(), row.getName(), row.getCategoryId(),
+                        sales.getOrDefault(row.getId(), 0L));
+                newProducts.put(row.getId(), entry);
+                insertTerminals(newRoot, entry);
+            });
+        }
+        for (Category category : categoryRegistry.list()) {
+            Entry entry = entry(Kind.CATEGORY, category.getId(), category.getName(), null,
+                    categorySales(newProducts, category.getId()));
+            newCategories.put(category.getId(), entry);
+            insertTerminals(newRoot, entry);
+        }
+        rankSubtree(newRoot);
+
+        lock.writeLock().lock();
+        try {
+            root = newRoot;
+            products.clear();
+            products.putAll(newProducts);
+            categories.clear();
+            categories.putAll(newCategories);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Suggest index built: {} products, {} categories in {} ms",
+                newProducts.size(), newCategories.size(), System.currentTimeMillis() - started);
+    }
+
+    // ✅ Incremental updates from product and category writes
+    public void index(Product product) {
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        lock.writeLock().lock();
+        try {
+            Entry previous = products.remove(product.getId());
+            long popularity = previous != null ? previous.popularity : 0L;
+            if (previous != null) {
+                detach(previous);
+            }
+            Entry entry = entry(Kind.PRODUCT, product.getId(), product.getName(), categoryId, popularity);
+            products.put(product.getId(), entry);
+            attach(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = products.remove(productId);
+            if (previous != null) {
+                detach(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void indexCategory(Category category) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = categories.remove(category.getId());
+            if (previous != null) {
+                detach(previous);
+            }
+            Entry entry = entry(Kind.CATEGORY, category.getId(), category.getName(), null,
+                    categorySales(products, category.getId()));
+            categories.put(category.getId(), entry);
+            attach(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeCategory(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = categories.remove(categoryId);
+            if (previous != null) {
+                detach(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ✅ Called after an order commits; re-ranks only the paths of the product and its category
+    public void recordSale(Long productId, int quantity) {
+        lock.writeLock().lock();
+        try {
+            Entry product = products.get(productId);
+            if (product == null) {
+                return;
+            }
+            product.popularity += quantity;
+            rerank(product);
+            Entry category = product.categoryId != null ? categories.get(product.categoryId) : null;
+            if (category != null) {
+                category.popularity += quantity;
+                rerank(category);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        String prefix = normalizeQuery(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.child(prefix.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            Ranked[] top = node.top;
+            List<SuggestionDTO> suggestions = new ArrayList<>(Math.min(limit, top.length));
+            for (int i = 0; i < top.length && suggestions.size() < limit; i++) {
+                Entry entry = top[i].entry();
+                suggestions.add(SuggestionDTO.builder()
+                        .type(entry.kind.name())
+                        .id(entry.id)
+                        .text(entry.text)
+                        .categoryId(entry.categoryId)
+                        .build());
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- trie maintenance (callers hold the write lock, or own an unpublished trie) ----
+
+    private void attach(Entry entry) {
+        for (int k = 0; k < entry.keys.size(); k++) {
+            String key = entry.keys.get(k);
+            List<Node> path = path(root, key, true);
+            Node last = path.get(path.size() - 1);
+            List<Terminal> terminals = new ArrayList<>(last.terminals);
+            terminals.add(new Terminal(entry, k == 0 ? 1.0 : WORD_MATCH_FACTOR));
+            last.terminals = terminals;
+            rankPath(path);
+        }
+    }
+
+    private void detach(Entry entry) {
+        for (String key : entry.keys) {
+            List<Node> path = path(root, key, false);
+            if (path == null) continue;
+            Node last = path.get(path.size() - 1);
+            List<Terminal> terminals = new ArrayList<>(last.terminals);
+            terminals.removeIf(t -> t.entry() == entry);
+            last.terminals = terminals;
+            // prune branches that no longer lead anywhere
+            for (int i = path.size() - 1; i > 0 && path.get(i).isEmpty(); i--) {
+                path.get(i - 1).removeChild(key.charAt(i - 1));
+            }
+            rankPath(path);
+        }
+    }
+
+    private void rerank(Entry entry) {
+        for (String key : entry.keys) {
+            List<Node> path = path(root, key, false);
+            if (path != null) {
+                rankPath(path);
+            }
+        }
+    }
+
+    private static void insertTerminals(Node root, Entry entry) {
+        for (int k = 0; k < entry.keys.size(); k++) {
+            List<Node> path = path(root, entry.keys.get(k), true);
+            Node last = path.get(path.size() - 1);
+            if (last.terminals.isEmpty()) {
+                last.terminals = new ArrayList<>();
+            }
+            last.terminals.add(new Terminal(entry, k == 0 ? 1.0 : WORD_MATCH_FACTOR));
+        }
+    }
+
+    // root first, the node for the whole key last; null if the key is not present and create is false
+    private static List<Node> path(Node root, String key, boolean create) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            node = create ? node.childOrCreate(key.charAt(i)) : node.child(key.charAt(i));
+            if (node == null) return null;
+            path.add(node);
+        }
+        return path;
+    }
+
+    // bottom-up: a node's best entries are among its own terminals and its children's best entries
+    private static void rankPath(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            rank(path.get(i));
+        }
+    }
+
+    private static void rankSubtree(Node node) {
+        for (Node child : node.children) {
+            rankSubtree(child);
+        }
+        rank(node);
+    }
+
+    private static void rank(Node node) {
+        Map<Entry, Double> best = new LinkedHashMap<>();
+        for (Terminal terminal : node.terminals) {
+            best.merge(terminal.entry(), terminal.entry().score() * terminal.factor(), Math::max);
+        }
+        for (Node child : node.children) {
+            for (Ranked ranked : child.top) {
+                best.merge(ranked.entry(), ranked.rank(), Math::max);
+            }
+        }
+        node.top = best.entrySet().stream()
+                .map(e -> new Ranked(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingDouble(Ranked::rank).reversed()
+                        .thenComparingInt(r -> r.entry().text.length())
+                        .thenComparingLong(r -> r.entry().id))
+                .limit(TOP_K)
+                .toArray(Ranked[]::new);
+    }
+
+    private static Entry entry(Kind kind, long id, String text, Long categoryId, long popularity) {
+        return new Entry(kind, id, text, categoryId, keys(text), popularity);
+    }
+
+    private static long categorySales(Map<Long, Entry> products, Long categoryId) {
+        long total = 0;
+        for (Entry product : products.values()) {
+            if (categoryId.equals(product.categoryId)) {
+                total += product.popularity;
+            }
+        }
+        return total;
+    }
+
+    // the whole name plus the name from each later word on, e.g. "red running shoes", "running shoes", "shoes"
+    static List<String> keys(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        List<String> keys = new ArrayList<>();
+        keys.add(truncate(normalized));
+        int from = 0;
+        while (keys.size() <= MAX_WORD_KEYS && (from = normalized.indexOf(' ', from) + 1) > 0) {
+            keys.add(truncate(normalized.substring(from)));
+        }
+        return keys;
+    }
+
+    private static String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_WORD.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // like normalize, but a trailing separator is kept: "red " should not match "reddish"
+    private static String normalizeQuery(String query) {
+        String normalized = normalize(query);
+        if (!normalized.isEmpty() && NON_WORD.matcher(query.substring(query.length() - 1)).matches()) {
+            normalized += " ";
+        }
+        return normalized.length() > MAX_KEY_LENGTH ? normalized.substring(0, MAX_KEY_LENGTH) : normalized;
+    }
+}
@@ -0,0 +1,61 @@
+package com.shopcart.shopcart_backend.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Local stand-in for a card/UPI provider: answers after a delay, declining a configured share of payments (none by default)
+@Component
+@ConditionalOnProperty(name = "shopcart.payments.gateway", havingValue = "simulated", matchIfMissing = true)
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private final TaskScheduler taskScheduler;
+
+    @Value("${shopcart.payments.simulated.latency-ms:1500}")
+    private long latencyMs;
+
+    @Value("${shopcart.payments.simulated.failure-rate:0}")
+    private double failureRate;
+
+    public SimulatedPaymentGateway(TaskScheduler taskScheduler) {
+        this.taskScheduler = taskScheduler;
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> charge(PaymentRequest request) {
+        CompletableFuture<PaymentResult> result = new CompletableFuture<>();
+        // cash on delivery is collected by the courier, nothing to authorise
+        if ("COD".equalsIgnoreCase(request.method())) {
+            result.complete(PaymentResult.approved("COD-" + request.orderId()));
+            return result;
+        }
+        // a timer, not a sleeping thread, stands in for the provider's response time
+        taskScheduler.schedule(() -> result.complete(decide(request)), Instant.now().plusMillis(latencyMs));
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> refund(RefundRequest request) {
+        CompletableFuture<PaymentResult> result = new CompletableFuture<>();
+        // nothing was collected for cash on delivery
+        if (request.transactionId().startsWith("COD-")) {
+            result.complete(PaymentResult.approved(request.transactionId()));
+            return result;
+        }
+        taskScheduler.schedule(() -> result.complete(PaymentResult.approved("RFND-" + request.transactionId())),
+                Instant.now().plusMillis(latencyMs));
+        return result;
+    }
+
+    private PaymentResult decide(PaymentRequest request) {
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            return PaymentResult.declined("Payment declined by the simulated gateway");
+        }
+        return PaymentResult.approved("TXN-" + request.orderId() + "-" + System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,150 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.exception.BadRequestException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Soft stock holds for cart lines. Putting a product in the cart holds that many units for
+ * the user until the hold expires, the line is removed, or the order is placed. Available to
+ * sell is stock minus all holds on the product, kept as a running total so it is an O(1) read.
+ * Holds on one product are changed under that product's map entry, so two carts can never hold
+ * the same last unit.
+ */
+@Component
+public class StockReservationLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationLedger.class);
+
+    private final long ttlMillis;
+
+    // productId -> units held across all carts
+    private final Map<Long, Integer> reserved = new ConcurrentHashMap<>();
+    private final Map<HoldKey, Hold> holds = new ConcurrentHashMap<>();
+    // moves whenever some product's held total changes; part of the product list ETag
+    private final AtomicLong version = new AtomicLong();
+
+    private record HoldKey(Long userId, Long productId) {}
+
+    private record Hold(int quantity, long expiresAt) {}
+
+    public StockReservationLedger(@Value("${shopcart.reservations.ttl-minutes:15}") long ttlMinutes) {
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+    }
+
+    // ✅ O(1): units nobody holds
+    public int available(Long productId, int stock) {
+        return Math.max(0, stock - reserved.getOrDefault(productId, 0));
+    }
+
+    // units this user may still take: their own hold counts as theirs
+    public int availableTo(Long userId, Long productId, int stock) {
+        return available(productId, stock) + held(userId, productId);
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public int held(Long userId, Long productId) {
+        Hold hold = holds.get(new HoldKey(userId, productId));
+        return hold != null ? hold.quantity() : 0;
+    }
+
+    /**
+     * Sets the user's hold on a product to {@code quantity} units (0 releases it) and restarts
+     * its expiry. Fails without changing anything when other carts hold too much of the stock.
+     */
+    public void reserve(Long userId, Long productId, int quantity, int stock, String productName) {
+        HoldKey key = new HoldKey(userId, productId);
+        reserved.compute(productId, (id, total) -> {
+            int previous = held(userId, productId);
+            int others = (total != null ? total : 0) - previous;
+            if (quantity > 0 && quantity > stock - others) {
+                throw new BadRequestException("Not enough stock for product: " + productName);
+            }
+            if (quantity != previous) {
+                version.incrementAndGet();
+            }
+            if (quantity > 0) {
+                holds.put(key, new Hold(quantity, System.currentTimeMillis() + ttlMillis));
+            } else {
+                holds.remove(key);
+            }
+            int updated = others + quantity;
+            return updated > 0 ? updated : null;
+        });
+    }
+
+    /**
+     * Sets several holds of one user at once; if any of them cannot be placed, the ones
+     * already placed are put back as they were and the error is rethrown.
+     */
+    public void reserveAll(Long userId, Map<Long, Integer> quantities, Map<Long, Integer> stock, Map<Long, String> names) {
+        Map<Long, Integer> previous = new LinkedHashMap<>();
+        try {
+            quantities.forEach((productId, quantity) -> {
+                previous.put(productId, held(userId, productId));
+                reserve(userId, productId, quantity, stock.get(productId), names.get(productId));
+            });
+        } catch (RuntimeException e) {
+            // restoring never fails: it only gives back units this call took
+            previous.forEach((productId, quantity) -> reserve(userId, productId, quantity, Integer.MAX_VALUE, null));
+            throw e;
+        }
+    }
+
+    public void release(Long userId, Collection<Long> productIds) {
+        productIds.forEach(productId -> reserve(userId, productId, 0, 0, null));
+    }
+
+    // ✅ Expired holds are dropped in bulk, one map update per product
+    @Scheduled(fixedDelayString = "${shopcart.reservations.sweep-ms:10000}")
+    public void expireHolds() {
+        int expired = expire(System.currentTimeMillis());
+        if (expired > 0) {
+            logger.info("Released {} expired stock holds", expired);
+        }
+    }
+
+    int expire(long now) {
+        Map<Long, List<HoldKey>> byProduct = new HashMap<>();
+        holds.forEach((key, hold) -> {
+            if (hold.expiresAt() <= now) {
+                byProduct.computeIfAbsent(key.productId(), id -> new ArrayList<>()).add(key);
+            }
+        });
+
+        int[] released = {0};
+        byProduct.forEach((productId, keys) -> reserved.computeIfPresent(productId, (id, total) -> {
+            int remaining = total;
+            for (HoldKey key : keys) {
+                Hold hold = holds.get(key);
+                // renewed since it was collected
+                if (hold == null || hold.expiresAt() > now) continue;
+                holds.remove(key);
+                remaining -= hold.quantity();
+                released[0]++;
+            }
+            return remaining > 0 ? remaining : null;
+        }));
+        if (released[0] > 0) {
+            version.incrementAndGet();
+        }
+        return released[0];
+    }
+}
@@ -0,0 +1,57 @@
+package com.shopcart.shopcart_backend.services;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Changes product stock with single guarded statements instead of read-modify-save, so
+ * concurrent checkouts cannot lose updates or oversell. Callers run inside a transaction and
+ * roll it back when a decrement comes back short. Rows are always touched in product id order,
+ * so two orders sharing products lock them in the same order and cannot deadlock.
+ */
+@Component
+class StockWriter {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET stock = stock - ?, updated_at = ? WHERE id = ? AND stock >= ?";
+    private static final String INCREMENT_SQL =
+            "UPDATE products SET stock = stock + ?, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    StockWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // productId -> units; returns the products that did not have enough stock (nothing applied for those)
+    List<Long> decrement(Map<Long, Integer> quantities) {
+        Map<Long, Integer> ordered = new TreeMap<>(quantities);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> rows = new ArrayList<>();
+        ordered.forEach((productId, quantity) -> rows.add(new Object[]{quantity, now, productId, quantity}));
+
+        int[] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, rows);
+        List<Long> shortOf = new ArrayList<>();
+        int i = 0;
+        for (Long productId : ordered.keySet()) {
+            if (counts[i++] == 0) {
+                shortOf.add(productId);
+            }
+        }
+        return shortOf;
+    }
+
+    void increment(Map<Long, Integer> quantities) {
+        Map<Long, Integer> ordered = new TreeMap<>(quantities);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> rows = new ArrayList<>();
+        ordered.forEach((productId, quantity) -> rows.add(new Object[]{quantity, now, productId}));
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, rows);
+    }
+}
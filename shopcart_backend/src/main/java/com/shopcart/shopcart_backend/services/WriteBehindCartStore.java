@@ -0,0 +1,198 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.repositories.CartItemRepository;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Carts held in memory, keyed by user id, and written to {@code cart_items} in the background.
+ * A cart is loaded from the database the first time it is touched, so a restart recovers
+ * everything that was flushed. Changes only mark lines dirty. The flusher writes the latest
+ * quantity of each dirty line in one batch, so many clicks on the same line become a single
+ * row write. Idle carts with nothing pending are dropped from memory.
+ */
+@Component
+@ConditionalOnProperty(name = "shopcart.cart.store", havingValue = "memory", matchIfMissing = true)
+public class WriteBehindCartStore implements CartStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+    private final CartItemRepository cartItemRepository;
+    private final CartLineWriter writer;
+
+    @Value("${shopcart.cart.idle-minutes:30}")
+    private long idleMinutes;
+
+    private final Map<Long, UserCart> carts = new ConcurrentHashMap<>();
+    // users with lines not yet written
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+
+    // guarded by its own monitor
+    private static final class UserCart {
+        final LinkedHashMap<Long, Integer> lines = new LinkedHashMap<>();
+        final Set<Long> dirty = new HashSet<>();
+        boolean loaded;
+        boolean evicted;
+        long lastAccess;
+    }
+
+    public WriteBehindCartStore(CartItemRepository cartItemRepository, CartLineWriter writer) {
+        this.cartItemRepository = cartItemRepository;
+        this.writer = writer;
+    }
+
+    @Override
+    public Map<Long, Integer> lines(Long userId) {
+        return withCart(userId, cart -> new LinkedHashMap<>(cart.lines));
+    }
+
+    @Override
+    public Map<Long, Integer> update(Long userId, Consumer<Map<Long, Integer>> mutation) {
+        return withCart(userId, cart -> {
+            Map<Long, Integer> working = new LinkedHashMap<>(cart.lines);
+            mutation.accept(working);
+            working.values().removeIf(quantity -> quantity == null || quantity <= 0);
+
+            Map<Long, Integer> changes = CartLineWriter.changes(cart.lines, working);
+            if (!changes.isEmpty()) {
+                cart.lines.clear();
+                cart.lines.putAll(working);
+                cart.dirty.addAll(changes.keySet());
+                dirtyUsers.add(userId);
+            }
+            return new LinkedHashMap<>(working);
+        });
+    }
+
+    // ✅ Coalesced write-behind: one batch per interval with the latest quantity of every dirty line
+    @Override
+    @Scheduled(fixedDelayString = "${shopcart.cart.flush-interval-ms:500}")
+    public synchronized void flush() {
+        Map<Long, Map<Long, Integer>> pending = new HashMap<>();
+        for (Iterator<Long> it = dirtyUsers.iterator(); it.hasNext(); ) {
+            Long userId = it.next();
+            it.remove();
+            UserCart cart = carts.get(userId);
+            if (cart == null) continue;
+            synchronized (cart) {
+                Map<Long, Integer> lines = new LinkedHashMap<>();
+                cart.dirty.forEach(productId -> lines.put(productId, cart.lines.getOrDefault(productId, 0)));
+                cart.dirty.clear();
+                if (!lines.isEmpty()) pending.put(userId, lines);
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            try {
+                writer.write(pending);
+            } catch (DataIntegrityViolationException e) {
+                // a product was deleted under someone's cart; write line by line and drop what cannot be stored
+                writeIndividually(pending);
+            } catch (RuntimeException e) {
+                logger.warn("Cart flush failed for {} users, will retry", pending.size(), e);
+                markDirty(pending);
+            }
+        }
+        evictIdle();
+    }
+
+    /**
+     * Rows of this cart were deleted in the database. A cart with nothing pending is dropped, so
+     * the next access reloads what is left. A cart with pending changes is in use: every line is
+     * marked dirty, so the next flush writes the whole cart back.
+     */
+    @Override
+    public void reload(Long userId) {
+        UserCart cart = carts.get(userId);
+        if (cart == null) return;
+        synchronized (cart) {
+            if (cart.evicted) return;
+            if (cart.dirty.isEmpty()) {
+                cart.evicted = true;
+                carts.remove(userId, cart);
+            } else {
+                cart.dirty.addAll(cart.lines.keySet());
+                dirtyUsers.add(userId);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void writeIndividually(Map<Long, Map<Long, Integer>> pending) {
+        pending.forEach((userId, lines) -> lines.forEach((productId, quantity) -> {
+            try {
+                writer.write(Map.of(userId, Map.of(productId, quantity)));
+            } catch (DataIntegrityViolationException e) {
+                logger.warn("Dropping cart line of user {} for product {}: {}", userId, productId, e.getMessage());
+                withCart(userId, cart -> cart.lines.remove(productId));
+            } catch (RuntimeException e) {
+                logger.warn("Cart flush failed for user {}, will retry", userId, e);
+                markDirty(Map.of(userId, Map.of(productId, quantity)));
+            }
+        }));
+    }
+
+    private void markDirty(Map<Long, Map<Long, Integer>> lines) {
+        lines.forEach((userId, productLines) -> {
+            UserCart cart = carts.get(userId);
+            if (cart == null) return;
+            synchronized (cart) {
+                cart.dirty.addAll(productLines.keySet());
+                dirtyUsers.add(userId);
+            }
+        });
+    }
+
+    // runs inside flush(), so nothing can be re-marked dirty while a cart is being dropped
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleMinutes);
+        carts.forEach((userId, cart) -> {
+            synchronized (cart) {
+                if (cart.dirty.isEmpty() && cart.lastAccess < cutoff) {
+                    cart.evicted = true;
+                    carts.remove(userId, cart);
+                }
+            }
+        });
+    }
+
+    private <T> T withCart(Long userId, Function<UserCart, T> action) {
+        while (true) {
+            UserCart cart = carts.computeIfAbsent(userId, id -> new UserCart());
+            synchronized (cart) {
+                if (cart.evicted) {
+                    continue; // lost a race with eviction, take the fresh instance
+                }
+                if (!cart.loaded) {
+                    cartItemRepository.findLinesByUserId(userId)
+                            .forEach(row -> cart.lines.put(row.getProductId(), row.getQuantity()));
+                    cart.loaded = true;
+                }
+                cart.lastAccess = System.currentTimeMillis();
+                return action.apply(cart);
+            }
+        }
+    }
+}
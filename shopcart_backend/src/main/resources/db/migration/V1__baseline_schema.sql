@@ -0,0 +1,116 @@
+-- Schema as Hibernate created it before migrations were introduced.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate), so this only
+-- runs against an empty database. Hibernate (ddl-auto=update) still adds new columns afterwards.
+-- Enum columns are VARCHAR so new enum constants never need a column change.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    email VARCHAR(255),
+    password VARCHAR(255),
+    role VARCHAR(32),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS category (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS products (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    name VARCHAR(255),
+    description VARCHAR(255),
+    price DOUBLE NOT NULL,
+    stock INT NOT NULL,
+    image_url VARCHAR(255),
+    thumbnail_url VARCHAR(255),
+    card_image_url VARCHAR(255),
+    detail_image_url VARCHAR(255),
+    webp_image_url VARCHAR(255),
+    added_by_admin_id BIGINT,
+    category_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_products_added_by FOREIGN KEY (added_by_admin_id) REFERENCES users (id),
+    CONSTRAINT fk_products_category FOREIGN KEY (category_id) REFERENCES category (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS discounts (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    percentage DOUBLE NOT NULL,
+    start_date DATETIME(6),
+    end_date DATETIME(6),
+    active BIT(1) NOT NULL,
+    product_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_discounts_product FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS cart_items (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    quantity INT NOT NULL,
+    user_id BIGINT,
+    product_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_cart_items_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_cart_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS orders (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    order_date DATETIME(6),
+    status VARCHAR(32),
+    total_amount DOUBLE NOT NULL,
+    street VARCHAR(255),
+    city VARCHAR(255),
+    state VARCHAR(255),
+    zip_code VARCHAR(255),
+    country VARCHAR(255),
+    payment_method VARCHAR(255),
+    transaction_id VARCHAR(255),
+    payment_status VARCHAR(255),
+    user_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+-- @Table(name = "OrderItems") becomes order_items through Spring's physical naming strategy
+CREATE TABLE IF NOT EXISTS order_items (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    quantity INT NOT NULL,
+    price DOUBLE NOT NULL,
+    total DOUBLE NOT NULL,
+    status VARCHAR(32),
+    product_id BIGINT,
+    order_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS order_status_history (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    status VARCHAR(32),
+    changed_at DATETIME(6),
+    order_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_status_history_order FOREIGN KEY (order_id) REFERENCES orders (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS stored_images (
+    hash VARCHAR(64) NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    extension VARCHAR(8),
+    size BIGINT NOT NULL,
+    ref_count INT NOT NULL,
+    released_at DATETIME(6),
+    PRIMARY KEY (hash)
+) ENGINE = InnoDB;
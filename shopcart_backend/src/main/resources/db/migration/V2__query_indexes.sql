@@ -0,0 +1,39 @@
+-- Indexes for the hot predicates; foreign keys already have their own.
+-- QueryPlanRegressionTest applies this file to the test database and fails on full scans.
+
+-- UserRepository.findByEmail runs on every authenticated request
+CREATE INDEX idx_users_email ON users (email);
+
+-- CartItemRepository.findByUser, and the (user, product) lookup when adding to the cart
+CREATE INDEX idx_cart_items_user_product ON cart_items (user_id, product_id);
+
+-- DiscountRepository.findActiveDiscountForProduct and the on-sale filter's EXISTS
+CREATE INDEX idx_discounts_product_window ON discounts (product_id, active, start_date, end_date);
+-- DiscountRepository.deactivateExpired
+CREATE INDEX idx_discounts_end_active ON discounts (end_date, active);
+
+-- revenue and sales figures by status; covers OrderRepository.findTotalRevenueByAdminIdAndStatus
+CREATE INDEX idx_order_items_status ON order_items (status);
+CREATE INDEX idx_order_items_product_status ON order_items (product_id, status, total);
+
+-- OrderRepository.countByStatus
+CREATE INDEX idx_orders_status ON orders (status);
+
+-- category listings sorted by name, and price range / price sort on /api/products/filter
+CREATE INDEX idx_products_category_name ON products (category_id, name);
+CREATE INDEX idx_products_price ON products (price);
+
+-- image garbage collector
+-- databases baselined at V1 predate the image store, and Flyway runs before Hibernate adds tables,
+-- so the table is created here as V1 defines it (no-op when it already exists)
+CREATE TABLE IF NOT EXISTS stored_images (
+    hash VARCHAR(64) NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    extension VARCHAR(8),
+    size BIGINT NOT NULL,
+    ref_count INT NOT NULL,
+    released_at DATETIME(6),
+    PRIMARY KEY (hash)
+);
+CREATE INDEX idx_stored_images_released ON stored_images (ref_count, released_at);
@@ -0,0 +1,19 @@
+-- Repeated add-to-cart used to insert a new row each time. Fold duplicates into the oldest line,
+-- then enforce one line per (user, product) so CartItemRepository can upsert.
+
+UPDATE cart_items c
+JOIN (SELECT MIN(id) AS keep_id, SUM(quantity) AS quantity
+      FROM cart_items
+      GROUP BY user_id, product_id
+      HAVING COUNT(*) > 1) merged ON c.id = merged.keep_id
+SET c.quantity = merged.quantity;
+
+DELETE c FROM cart_items c
+JOIN cart_items kept ON kept.user_id = c.user_id
+                    AND kept.product_id = c.product_id
+                    AND kept.id < c.id;
+
+ALTER TABLE cart_items ADD CONSTRAINT uk_cart_items_user_product UNIQUE (user_id, product_id);
+
+-- the unique key serves the same lookups
+DROP INDEX idx_cart_items_user_product ON cart_items;
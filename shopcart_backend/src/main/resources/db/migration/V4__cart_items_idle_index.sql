@@ -0,0 +1,2 @@
+-- AbandonedCartSweeper reads the oldest idle lines in batches
+CREATE INDEX idx_cart_items_updated_at ON cart_items (updated_at, id);
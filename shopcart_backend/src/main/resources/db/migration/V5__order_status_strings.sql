@@ -0,0 +1,5 @@
+-- OrderStatus gained PENDING and FAILED. Schemas created by Hibernate before migrations existed
+-- have ENUM status columns that reject new values; make them plain strings as in V1.
+ALTER TABLE orders MODIFY status VARCHAR(32);
+ALTER TABLE order_items MODIFY status VARCHAR(32);
+ALTER TABLE order_status_history MODIFY status VARCHAR(32);
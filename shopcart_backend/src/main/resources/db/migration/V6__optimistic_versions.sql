@@ -0,0 +1,4 @@
+-- Version columns for optimistic locking on Product, Order and OrderItem
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE order_items ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,211 @@
+package com.shopcart.shopcart_backend.repositories;
+
+import com.shopcart.shopcart_backend.entities.Category;
+import com.shopcart.shopcart_backend.entities.OrderStatus;
+import com.shopcart.shopcart_backend.entities.Product;
+import com.shopcart.shopcart_backend.entities.Role;
+import com.shopcart.shopcart_backend.entities.User;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every declared query of the hot repositories, captures the SQL Hibernate sends, and
+ * EXPLAINs it on H2 with the index migrations applied. A query whose plan scans a whole table
+ * fails the build unless its case says the scan is intended (full-catalog reads).
+ * New repository methods fail {@link #everyRepositoryQueryHasAPlanCase()} until a case is added.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_plans;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.shopcart.shopcart_backend.repositories.QueryPlanRegressionTest$SqlCapture"
+})
+@ActiveProfiles("test")
+@Sql(scripts = {"classpath:db/migration/V2__query_indexes.sql", "classpath:db/migration/V4__cart_items_idle_index.sql"},
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Transactional
+class QueryPlanRegressionTest {
+
+    private static final List<Class<?>> COVERED_REPOSITORIES = List.of(
+            ProductRepository.class, OrderRepository.class, DiscountRepository.class, CartItemRepository.class);
+
+    // H2 marks a full scan as /* public.products.tableScan */
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\*\\s*\\w+\\.(\\w+)\\.tableScan", Pattern.CASE_INSENSITIVE);
+
+    @Autowired private ProductRepository productRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private DiscountRepository discountRepository;
+    @Autowired private CartItemRepository cartItemRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private User admin;
+    private Category category;
+    private Product product;
+
+    private record PlanCase(Runnable query, Set<String> intendedScans) {}
+
+    // Collects every statement Hibernate prepares
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        admin = userRepository.save(User.builder()
+                .name("Admin").email("plans@shopcart.test").password("secret").role(Role.ADMIN).build());
+        category = categoryRepository.save(Category.builder().name("Plans").build());
+        product = productRepository.save(Product.builder()
+                .name("Plan product").price(10).stock(1).addedBy(admin).category(category).build());
+    }
+
+    // keyed by "Repository.method/parameterCount"
+    private Map<String, PlanCase> cases() {
+        Date now = new Date();
+        Map<String, PlanCase> cases = new LinkedHashMap<>();
+
+        cases.put("ProductRepository.findByAddedBy/1", indexed(() -> productRepository.findByAddedBy(admin)));
+        cases.put("ProductRepository.findByAddedByEmail/1", indexed(() -> productRepository.findByAddedByEmail(admin.getEmail())));
+        cases.put("ProductRepository.findOrdersByAdminProducts/1", indexed(() -> productRepository.findOrdersByAdminProducts(admin.getId())));
+        cases.put("ProductRepository.findWithCategoryById/1", indexed(() -> productRepository.findWithCategoryById(product.getId())));
+        cases.put("ProductRepository.findAll/1", scans(() -> productRepository.findAll(PageRequest.of(0, 20)), "products"));
+        cases.put("ProductRepository.findAll/2", indexed(() -> productRepository.findAll(
+                ProductSpecifications.inCategory(category.getId()).and(ProductSpecifications.onSale(true, now)),
+                PageRequest.of(0, 20))));
+        cases.put("ProductRepository.findByIdIn/1", indexed(() -> productRepository.findByIdIn(List.of(product.getId(), 42L))));
+        cases.put("ProductRepository.findByIdGreaterThanOrderByIdAsc/2",
+                indexed(() -> productRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 20))));
+        cases.put("ProductRepository.streamAllOrderById/0", scans(() -> drain(productRepository.streamAllOrderById()), "products"));
+        cases.put("ProductRepository.streamByAddedByOrderById/1",
+                indexed(() -> drain(productRepository.streamByAddedByOrderById(admin.getId()))));
+        cases.put("ProductRepository.streamSearchRows/0", scans(() -> drain(productRepository.streamSearchRows()), "products"));
+        cases.put("ProductRepository.streamFacetRows/0", scans(() -> drain(productRepository.streamFacetRows()), "products"));
+        cases.put("ProductRepository.updateImageVariants/6", indexed(() -> productRepository.updateImageVariants(
+                product.getId(), "product-images/a.jpg", "t", "c", "d", null)));
+
+        cases.put("OrderRepository.findByUser/1", indexed(() -> orderRepository.findByUser(admin)));
+        cases.put("OrderRepository.countByStatus/1", indexed(() -> orderRepository.countByStatus(OrderStatus.PLACED)));
+        cases.put("OrderRepository.findIdsByStatusAndCreatedAtBefore/2",
+                indexed(() -> orderRepository.findIdsByStatusAndCreatedAtBefore(OrderStatus.PENDING, now)));
+        cases.put("OrderRepository.findOrdersByAdminId/1", indexed(() -> orderRepository.findOrdersByAdminId(admin.getId())));
+        cases.put("OrderRepository.findOrderItemsByAdminId/1", indexed(() -> orderRepository.findOrderItemsByAdminId(admin.getId())));
+        cases.put("OrderRepository.findTotalRevenueByAdminIdAndStatus/2",
+                indexed(() -> orderRepository.findTotalRevenueByAdminIdAndStatus(admin.getId(), OrderStatus.DELIVERED)));
+
+        cases.put("DiscountRepository.findActiveDiscountForProduct/2",
+                indexed(() -> discountRepository.findActiveDiscountForProduct(product.getId(), now)));
+        // loaded once at startup into DiscountScheduler
+        cases.put("DiscountRepository.findAllActiveDiscounts/1", scans(() -> discountRepository.findAllActiveDiscounts(now), "discounts"));
+        cases.put("DiscountRepository.deactivateExpired/1", indexed(() -> discountRepository.deactivateExpired(now)));
+
+        cases.put("CartItemRepository.findByUser/1", indexed(() -> cartItemRepository.findByUser(admin)));
+        cases.put("CartItemRepository.findLinesByUserId/1", indexed(() -> cartItemRepository.findLinesByUserId(admin.getId())));
+        cases.put("CartItemRepository.deleteLines/2",
+                indexed(() -> cartItemRepository.deleteLines(admin.getId(), List.of(product.getId()))));
+        cases.put("CartItemRepository.findIdleLines/2", indexed(() -> cartItemRepository.findIdleLines(now, PageRequest.of(0, 500))));
+        cases.put("CartItemRepository.deleteIdleLines/2", indexed(() -> cartItemRepository.deleteIdleLines(List.of(42L), now)));
+        return cases;
+    }
+
+    @Test
+    void everyRepositoryQueryHasAPlanCase() {
+        Set<String> covered = cases().keySet();
+        List<String> missing = new ArrayList<>();
+        for (Class<?> repository : COVERED_REPOSITORIES) {
+            for (Method method : repository.getDeclaredMethods()) {
+                if (method.isSynthetic() || method.isDefault() || Modifier.isStatic(method.getModifiers())) continue;
+                String key = repository.getSimpleName() + "." + method.getName() + "/" + method.getParameterCount();
+                if (!covered.contains(key)) missing.add(key);
+            }
+        }
+        assertThat(missing).as("repository queries without a plan case").isEmpty();
+    }
+
+    @Test
+    void noRepositoryQueryScansAWholeTableUnlessIntended() {
+        List<String> regressions = new ArrayList<>();
+        cases().forEach((name, planCase) -> {
+            SqlCapture.statements.clear();
+            planCase.query().run();
+            List<String> statements = List.copyOf(SqlCapture.statements);
+            assertThat(statements).as("SQL issued by " + name).isNotEmpty();
+
+            for (String sql : statements) {
+                String verb = sql.stripLeading().toLowerCase(Locale.ROOT);
+                if (!(verb.startsWith("select") || verb.startsWith("update") || verb.startsWith("delete"))) continue;
+
+                String plan = explain(sql);
+                Matcher scan = TABLE_SCAN.matcher(plan);
+                while (scan.find()) {
+                    String table = scan.group(1).toLowerCase(Locale.ROOT);
+                    if (!planCase.intendedScans().contains(table)) {
+                        regressions.add(name + " scans " + table + ":\n" + plan);
+                    }
+                }
+            }
+        });
+        assertThat(regressions).as("query plans with full table scans").isEmpty();
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement("EXPLAIN " + sql);
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            // H2 picks indexes when preparing, so the bound values do not change the plan
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            return statement;
+        }, rs -> {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) plan.append(rs.getString(1)).append('\n');
+            return plan.toString();
+        });
+    }
+
+    private static PlanCase indexed(Runnable query) {
+        return new PlanCase(query, Set.of());
+    }
+
+    private static PlanCase scans(Runnable query, String... tables) {
+        return new PlanCase(query, Set.copyOf(Arrays.asList(tables)));
+    }
+
+    private static void drain(Stream<?> rows) {
+        try (rows) {
+            rows.forEach(row -> { });
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.dto.CartOperationDTO;
+import com.shopcart.shopcart_backend.dto.CartSummaryDTO;
+import com.shopcart.shopcart_backend.entities.Discount;
+import com.shopcart.shopcart_backend.entities.Product;
+import com.shopcart.shopcart_backend.entities.Role;
+import com.shopcart.shopcart_backend.entities.User;
+import com.shopcart.shopcart_backend.exception.BadRequestException;
+import com.shopcart.shopcart_backend.repositories.CartItemRepository;
+import com.shopcart.shopcart_backend.repositories.DiscountRepository;
+import com.shopcart.shopcart_backend.repositories.ProductRepository;
+import com.shopcart.shopcart_backend.repositories.UserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class CartUpsertTest {
+
+    @Autowired private CartService cartService;
+    @Autowired private CartStore cartStore;
+    @Autowired private CartItemRepository cartItemRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private DiscountRepository discountRepository;
+    @Autowired private DiscountScheduler discountScheduler;
+    @Autowired private AbandonedCartSweeper cartSweeper;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder().name("Cart").email("cart@shopcart.test").password("secret").role(Role.USER).build());
+        product = productRepository.save(Product.builder().name("Mug").price(8).stock(5).build());
+    }
+
+    @Test
+    void repeatedAddsMergeIntoOneLine() {
+        cartService.addToCart(user.getId(), product.getId(), 1);
+        cartService.addToCart(user.getId(), product.getId(), 1);
+        cartService.addToCart(user.getId(), product.getId(), 2);
+        cartStore.flush();
+
+        assertThat(cartItemRepository.findByUser(user))
+                .singleElement()
+                .satisfies(line -> assertThat(line.getQuantity()).isEqualTo(4));
+    }
+
+    @Test
+    void concurrentAddsToTheSameLineAreNotLost() throws InterruptedException {
+        int adds = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < adds; i++) {
+            pool.execute(() -> cartStore.update(user.getId(),
+                    lines -> lines.merge(product.getId(), 1, Integer::sum)));
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        cartStore.flush();
+
+        assertThat(cartStore.lines(user.getId())).containsExactly(Map.entry(product.getId(), adds));
+        assertThat(cartItemRepository.findByUser(user))
+                .singleElement()
+                .satisfies(line -> assertThat(line.getQuantity()).isEqualTo(adds));
+    }
+
+    @Test
+    void setQuantityReplacesAndZeroRemoves() {
+        cartService.addToCart(user.getId(), product.getId(), 2);
+
+        assertThat(cartService.setQuantity(user.getId(), product.getId(), 3).getQuantity()).isEqualTo(3);
+        assertThat(cartService.setQuantity(user.getId(), product.getId(), 0)).isNull();
+        assertThat(cartService.getCartItemsByUser(user.getId())).isEmpty();
+        cartStore.flush();
+        assertThat(cartItemRepository.findByUser(user)).isEmpty();
+    }
+
+    @Test
+    void mergedQuantityBeyondStockIsRejected() {
+        cartService.addToCart(user.getId(), product.getId(), 4);
+
+        assertThatThrownBy(() -> cartService.addToCart(user.getId(), product.getId(), 2))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void batchAppliesOperationsInOrderAndReturnsTheCart() {
+        Product tea = productRepository.save(Product.builder().name("Tea").price(3).stock(10).build());
+        cartService.addToCart(user.getId(), product.getId(), 1);
+
+        CartSummaryDTO cart = cartService.applyBatch(user.getId(), List.of(
+                CartOperationDTO.builder().op(CartOperationDTO.Op.ADD).productId(product.getId()).quantity(2).build(),
+                CartOperationDTO.builder().op(CartOperationDTO.Op.SET).productId(tea.getId()).quantity(4).build(),
+                CartOperationDTO.builder().op(CartOperationDTO.Op.ADD).productId(tea.getId()).quantity(1).build()));
+
+        assertThat(cart.getItems()).hasSize(2);
+        assertThat(cart.getItemCount()).isEqualTo(8);
+        assertThat(cart.getTotal()).isEqualTo(3 * 8 + 5 * 3);
+    }
+
+    @Test
+    void rejectedChangeLeavesTheCartUntouched() {
+        cartService.addToCart(user.getId(), product.getId(), 2);
+
+        assertThatThrownBy(() -> cartService.applyBatch(user.getId(), List.of(
+                CartOperationDTO.builder().op(CartOperationDTO.Op.ADD).productId(product.getId()).quantity(1).build(),
+                CartOperationDTO.builder().op(CartOperationDTO.Op.SET).productId(product.getId()).quantity(9).build())))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(cartStore.lines(user.getId())).containsExactly(Map.entry(product.getId(), 2));
+    }
+
+    @Test
+    void summaryReportsSubtotalSavingsAndItemCount() {
+        Product tea = productRepository.save(Product.builder().name("Tea").price(20).stock(10).build());
+        discountRepository.save(Discount.builder()
+                .product(tea)
+                .percentage(25)
+                .startDate(new Date(System.currentTimeMillis() - 60_000))
+                .active(true)
+                .build());
+        discountScheduler.reload();
+
+        cartService.addToCart(user.getId(), product.getId(), 2);
+        cartService.addToCart(user.getId(), tea.getId(), 3);
+
+        CartSummaryDTO summary = cartService.getCartSummary(user.getId());
+
+        assertThat(summary.getItems()).hasSize(2);
+        assertThat(summary.getItemCount()).isEqualTo(5);
+        assertThat(summary.getSubtotal()).isEqualTo(2 * 8 + 3 * 20);
+        assertThat(summary.getTotal()).isEqualTo(2 * 8 + 3 * 15);
+        assertThat(summary.getSavings()).isEqualTo(3 * 5);
+    }
+
+    @Test
+    void sweeperDeletesIdleLinesAndTheStoreForgetsThem() {
+        Product tea = productRepository.save(Product.builder().name("Tea").price(3).stock(10).build());
+        cartService.addToCart(user.getId(), product.getId(), 1);
+        cartService.addToCart(user.getId(), tea.getId(), 1);
+        cartStore.flush();
+        jdbcTemplate.update("UPDATE cart_items SET updated_at = ? WHERE user_id = ? AND product_id = ?",
+                new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(60)), user.getId(), product.getId());
+
+        long before = cartSweeper.stats().getLinesReclaimed();
+        cartSweeper.sweep();
+
+        assertThat(cartSweeper.stats().getLinesReclaimed() - before).isGreaterThanOrEqualTo(1);
+        assertThat(cartService.getCartItemsByUser(user.getId()))
+                .singleElement()
+                .satisfies(item -> assertThat(item.getId()).isEqualTo(tea.getId()));
+    }
+}
@@ -0,0 +1,138 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.dto.OrderRequestDTO;
+import com.shopcart.shopcart_backend.dto.OrderResponseDTO;
+import com.shopcart.shopcart_backend.dto.ShippingAddressDTO;
+import com.shopcart.shopcart_backend.entities.Order;
+import com.shopcart.shopcart_backend.entities.OrderItem;
+import com.shopcart.shopcart_backend.entities.OrderStatus;
+import com.shopcart.shopcart_backend.entities.Product;
+import com.shopcart.shopcart_backend.entities.Role;
+import com.shopcart.shopcart_backend.entities.User;
+import com.shopcart.shopcart_backend.exception.BadRequestException;
+import com.shopcart.shopcart_backend.repositories.OrderRepository;
+import com.shopcart.shopcart_backend.repositories.ProductRepository;
+import com.shopcart.shopcart_backend.repositories.UserRepository;
+import com.shopcart.shopcart_backend.services.PaymentGateway.PaymentResult;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class OrderPaymentTest {
+
+    private static final String EMAIL = "payer@shopcart.test";
+
+    @Autowired private OrderService orderService;
+    @Autowired private OrderPaymentService orderPaymentService;
+    @Autowired private CartService cartService;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder().name("Payer").email(EMAIL).password("secret").role(Role.USER).build());
+        product = productRepository.save(Product.builder().name("Lamp").price(40).stock(5).build());
+        cartService.addToCart(user.getId(), product.getId(), 2);
+    }
+
+    @Test
+    void orderStaysPendingUntilThePaymentIsApproved() {
+        OrderResponseDTO placed = orderService.placeOrder(EMAIL, request("CARD"));
+
+        assertThat(placed.getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(placed.getPaymentStatus()).isEqualTo("PENDING");
+        assertThat(stock()).isEqualTo(3);
+
+        orderPaymentService.complete(placed.getId(), PaymentResult.approved("TXN-1"));
+
+        Order order = orderRepository.findById(placed.getId()).orElseThrow();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PLACED);
+        assertThat(order.getTransactionId()).isEqualTo("TXN-1");
+        assertThat(order.getOrderItems()).extracting(OrderItem::getStatus).containsOnly(OrderStatus.PLACED);
+    }
+
+    @Test
+    void declinedPaymentFailsTheOrderAndReturnsTheStock() {
+        OrderResponseDTO placed = orderService.placeOrder(EMAIL, request("UPI"));
+
+        orderPaymentService.complete(placed.getId(), PaymentResult.declined("insufficient funds"));
+        // a late approval does not revive it
+        orderPaymentService.complete(placed.getId(), PaymentResult.approved("TXN-2"));
+
+        Order order = orderRepository.findById(placed.getId()).orElseThrow();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.FAILED);
+        assertThat(order.getPaymentStatus()).isEqualTo("FAILED");
+        assertThat(stock()).isEqualTo(5);
+    }
+
+    @Test
+    void itemsCannotBeCancelledWhileThePaymentIsRunning() {
+        OrderResponseDTO placed = orderService.placeOrder(EMAIL, request("CARD"));
+        Long itemId = orderRepository.findById(placed.getId()).orElseThrow().getOrderItems().get(0).getId();
+
+        assertThatThrownBy(() -> orderService.cancelOrderItem(EMAIL, placed.getId(), itemId))
+                .isInstanceOf(BadRequestException.class);
+
+        Order order = orderRepository.findById(placed.getId()).orElseThrow();
+        assertThat(order.getTotalAmount()).isEqualTo(80);
+        assertThat(stock()).isEqualTo(3);
+    }
+
+    @Test
+    void adminCannotShipAnOrderWhilePaymentIsRunning() {
+        OrderResponseDTO placed = orderService.placeOrder(EMAIL, request("CARD"));
+        Long itemId = orderRepository.findById(placed.getId()).orElseThrow().getOrderItems().get(0).getId();
+
+        assertThatThrownBy(() -> orderService.updateOrderStatus(placed.getId(), OrderStatus.SHIPPED))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> orderService.updateOrderItemStatus(itemId, OrderStatus.DELIVERED))
+                .isInstanceOf(BadRequestException.class);
+
+        // the approval still settles it
+        orderPaymentService.complete(placed.getId(), PaymentResult.approved("TXN-4"));
+        Order order = orderRepository.findById(placed.getId()).orElseThrow();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PLACED);
+        assertThat(order.getPaymentStatus()).isEqualTo("SUCCESS");
+    }
+
+    @Test
+    void cancellingAnItemTwiceReturnsItsStockOnce() {
+        OrderResponseDTO placed = orderService.placeOrder(EMAIL, request("CARD"));
+        orderPaymentService.complete(placed.getId(), PaymentResult.approved("TXN-3"));
+        Long itemId = orderRepository.findById(placed.getId()).orElseThrow().getOrderItems().get(0).getId();
+
+        orderService.cancelOrderItem(EMAIL, placed.getId(), itemId);
+        assertThatThrownBy(() -> orderService.cancelOrderItem(EMAIL, placed.getId(), itemId))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(stock()).isEqualTo(5);
+    }
+
+    // stock is changed with plain SQL, so read it the same way
+    private int stock() {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, product.getId());
+    }
+
+    private static OrderRequestDTO request(String method) {
+        return OrderRequestDTO.builder()
+                .paymentMethod(method)
+                .shippingAddress(ShippingAddressDTO.builder()
+                        .street("1 Main St").city("Pune").state("MH").zipCode("411001").country("IN").build())
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.dto.FacetCountDTO;
+import com.shopcart.shopcart_backend.dto.ProductFacetsDTO;
+import com.shopcart.shopcart_backend.dto.ProductFilterDTO;
+import com.shopcart.shopcart_backend.entities.Category;
+import com.shopcart.shopcart_backend.entities.Discount;
+import com.shopcart.shopcart_backend.entities.Product;
+import com.shopcart.shopcart_backend.repositories.CategoryRepository;
+import com.shopcart.shopcart_backend.repositories.DiscountRepository;
+import com.shopcart.shopcart_backend.repositories.ProductRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "shopcart.facets.price-edges=25,50,100")
+@ActiveProfiles("test")
+@Transactional
+class PriceFacetFilterTest {
+
+    @Autowired private ProductService productService;
+    @Autowired private ProductFacetIndex facetIndex;
+    @Autowired private CatalogVersions catalogVersions;
+    @Autowired private DiscountScheduler discountScheduler;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private DiscountRepository discountRepository;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(Category.builder().name("Price facets").build());
+        // listed at 100, sold at exactly the 50 edge
+        discounted(product("Lamp", 100), 50);
+        product("Vase", 50);
+        // listed inside [50, 100), sold below it
+        discounted(product("Bowl", 60), 25);
+        discountScheduler.reload();
+        catalogVersions.productsChanged();
+        facetIndex.refresh();
+    }
+
+    @Test
+    void facetCountsAndPriceFilterUseTheEffectivePrice() {
+        ProductFilterDTO inCategory = ProductFilterDTO.builder().categoryId(category.getId()).build();
+        List<FacetCountDTO> ranges = facetIndex.facets(inCategory).getPriceRanges();
+
+        FacetCountDTO below = range(ranges, 25);
+        FacetCountDTO edge = range(ranges, 50);
+        assertThat(below.getCount()).isEqualTo(1);
+        assertThat(edge.getCount()).isEqualTo(2);
+
+        // each range sent back as a filter returns exactly the products it counted
+        for (FacetCountDTO range : List.of(below, edge)) {
+            ProductFilterDTO filter = ProductFilterDTO.builder()
+                    .categoryId(category.getId())
+                    .minPrice(range.getMin())
+                    .maxPrice(range.getMax())
+                    .build();
+            ProductFacetsDTO facets = facetIndex.facets(filter);
+            assertThat(productService.getProducts(filter, List.of(), 0, 10).getTotalElements())
+                    .isEqualTo(range.getCount())
+                    .isEqualTo(facets.getTotal());
+        }
+    }
+
+    private Product product(String name, double price) {
+        return productRepository.save(Product.builder().name(name).price(price).stock(3).category(category).build());
+    }
+
+    private void discounted(Product product, double percentage) {
+        discountRepository.save(Discount.builder()
+                .product(product)
+                .percentage(percentage)
+                .startDate(new Date(System.currentTimeMillis() - 60_000))
+                .active(true)
+                .build());
+    }
+
+    private static FacetCountDTO range(List<FacetCountDTO> ranges, double min) {
+        return ranges.stream().filter(range -> range.getMin() == min).findFirst().orElseThrow();
+    }
+}
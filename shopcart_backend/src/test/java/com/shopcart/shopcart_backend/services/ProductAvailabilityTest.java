@@ -0,0 +1,59 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.dto.ProductResponseDTO;
+import com.shopcart.shopcart_backend.entities.Product;
+import com.shopcart.shopcart_backend.repositories.ProductRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ProductAvailabilityTest {
+
+    private static final long USER = 1L;
+
+    @Autowired private ProductService productService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private StockReservationLedger reservationLedger;
+
+    private Product mug;
+
+    @BeforeEach
+    void setUp() {
+        mug = productRepository.save(Product.builder().name("Mug").price(12).stock(5).build());
+    }
+
+    @AfterEach
+    void releaseHolds() {
+        reservationLedger.release(USER, List.of(mug.getId()));
+    }
+
+    @Test
+    void batchReadsSeeHoldsPlacedAfterTheProductWasCached() {
+        // warms the cache before anything is held
+        assertThat(productService.getProductsByIds(List.of(mug.getId())).get(mug.getId()).getAvailableStock())
+                .isEqualTo(5);
+
+        reservationLedger.reserve(USER, mug.getId(), 3, 5, "Mug");
+
+        ProductResponseDTO batch = productService.getProductsByIds(List.of(mug.getId())).get(mug.getId());
+        assertThat(batch.getStock()).isEqualTo(5);
+        assertThat(batch.getAvailableStock()).isEqualTo(2);
+        assertThat(productService.getProductById(mug.getId()).getAvailableStock()).isEqualTo(2);
+
+        reservationLedger.release(USER, List.of(mug.getId()));
+        assertThat(productService.getProductsByIds(List.of(mug.getId())).get(mug.getId()).getAvailableStock())
+                .isEqualTo(5);
+    }
+}
@@ -0,0 +1,118 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.dto.PageResponseDTO;
+import com.shopcart.shopcart_backend.dto.ProductFilterDTO;
+import com.shopcart.shopcart_backend.dto.ProductResponseDTO;
+import com.shopcart.shopcart_backend.entities.Category;
+import com.shopcart.shopcart_backend.entities.Discount;
+import com.shopcart.shopcart_backend.entities.Product;
+import com.shopcart.shopcart_backend.entities.Role;
+import com.shopcart.shopcart_backend.entities.User;
+import com.shopcart.shopcart_backend.repositories.CategoryRepository;
+import com.shopcart.shopcart_backend.repositories.DiscountRepository;
+import com.shopcart.shopcart_backend.repositories.ProductRepository;
+import com.shopcart.shopcart_backend.repositories.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductReadModelQueryCountTest {
+
+    private static final int PRODUCTS = 10;
+
+    @Autowired private ProductService productService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private DiscountRepository discountRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private DiscountScheduler discountScheduler;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        discountRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User admin = userRepository.save(User.builder()
+                .name("Admin")
+                .email("admin@shopcart.test")
+                .password("secret")
+                .role(Role.ADMIN)
+                .build());
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Category category = categoryRepository.save(Category.builder().name("Category " + i).build());
+            Product product = productRepository.save(Product.builder()
+                    .name("Product " + i)
+                    .description("Description " + i)
+                    .price(100 + i)
+                    .stock(5)
+                    .addedBy(admin)
+                    .category(category)
+                    .build());
+            discountRepository.save(Discount.builder()
+                    .product(product)
+                    .percentage(10)
+                    .startDate(new Date(System.currentTimeMillis() - 60_000))
+                    .active(true)
+                    .build());
+        }
+
+        discountScheduler.reload();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void filterPageRendersInConstantNumberOfQueries() {
+        PageResponseDTO<ProductResponseDTO> result =
+                productService.getProducts(ProductFilterDTO.builder().build(), List.of("name,asc"), 0, PRODUCTS);
+        List<ProductResponseDTO> page = result.getItems();
+
+        assertThat(page).hasSize(PRODUCTS);
+        assertThat(result.getTotalElements()).isEqualTo(PRODUCTS);
+        assertThat(page).allSatisfy(dto -> {
+            assertThat(dto.getCategory()).isNotNull();
+            assertThat(dto.getDiscount()).isNotNull();
+        });
+        // products + category (one select) and the count; discounts come from DiscountScheduler
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void cursorPageRendersInConstantNumberOfQueries() {
+        assertThat(productService.getProductPage(null, PRODUCTS).getItems()).hasSize(PRODUCTS);
+        // products + category (one select)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void detailRendersInConstantNumberOfQueries() {
+        Long id = productRepository.findAll().get(0).getId();
+        statistics.clear();
+
+        ProductResponseDTO dto = productService.getProductById(id);
+
+        assertThat(dto.getCategory()).isNotNull();
+        assertThat(dto.getDiscount()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,103 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.exception.BadRequestException;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StockReservationLedgerTest {
+
+    private static final long PRODUCT = 7L;
+
+    private final StockReservationLedger ledger = new StockReservationLedger(15);
+
+    @Test
+    void holdsReduceAvailabilityForOtherCartsOnly() {
+        ledger.reserve(1L, PRODUCT, 3, 5, "Mug");
+
+        assertThat(ledger.available(PRODUCT, 5)).isEqualTo(2);
+        assertThat(ledger.availableTo(1L, PRODUCT, 5)).isEqualTo(5);
+        assertThatThrownBy(() -> ledger.reserve(2L, PRODUCT, 3, 5, "Mug"))
+                .isInstanceOf(BadRequestException.class);
+
+        // changing a hold replaces it rather than adding to it
+        ledger.reserve(1L, PRODUCT, 1, 5, "Mug");
+        ledger.reserve(2L, PRODUCT, 4, 5, "Mug");
+        assertThat(ledger.available(PRODUCT, 5)).isZero();
+
+        ledger.release(1L, List.of(PRODUCT));
+        assertThat(ledger.available(PRODUCT, 5)).isEqualTo(1);
+    }
+
+    @Test
+    void rejectedBatchPutsEarlierHoldsBack() {
+        ledger.reserve(1L, PRODUCT, 2, 5, "Mug");
+
+        assertThatThrownBy(() -> ledger.reserveAll(1L, Map.of(PRODUCT, 4, 8L, 9),
+                Map.of(PRODUCT, 5, 8L, 3), Map.of(PRODUCT, "Mug", 8L, "Tea")))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(ledger.held(1L, PRODUCT)).isEqualTo(2);
+        assertThat(ledger.held(1L, 8L)).isZero();
+        assertThat(ledger.available(PRODUCT, 5)).isEqualTo(3);
+    }
+
+    @Test
+    void versionMovesWhenAvailabilityChanges() {
+        long start = ledger.version();
+
+        ledger.reserve(1L, PRODUCT, 2, 5, "Mug");
+        long afterHold = ledger.version();
+        assertThat(afterHold).isGreaterThan(start);
+
+        // same quantity again only renews the expiry
+        ledger.reserve(1L, PRODUCT, 2, 5, "Mug");
+        assertThatThrownBy(() -> ledger.reserve(2L, PRODUCT, 9, 5, "Mug")).isInstanceOf(BadRequestException.class);
+        assertThat(ledger.version()).isEqualTo(afterHold);
+
+        ledger.expire(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(16));
+        assertThat(ledger.version()).isGreaterThan(afterHold);
+    }
+
+    @Test
+    void expiredHoldsReturnTheirUnits() {
+        ledger.reserve(1L, PRODUCT, 2, 5, "Mug");
+        ledger.reserve(2L, PRODUCT, 3, 5, "Mug");
+
+        assertThat(ledger.expire(System.currentTimeMillis())).isZero();
+        assertThat(ledger.expire(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(16))).isEqualTo(2);
+        assertThat(ledger.available(PRODUCT, 5)).isEqualTo(5);
+    }
+
+    @Test
+    void concurrentCartsNeverHoldMoreThanTheStock() throws InterruptedException {
+        int stock = 50;
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (long user = 1; user <= 200; user++) {
+            long userId = user;
+            pool.execute(() -> {
+                try {
+                    ledger.reserve(userId, PRODUCT, 1, stock, "Mug");
+                    granted.incrementAndGet();
+                } catch (BadRequestException ignored) {
+                    // sold out
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(granted.get()).isEqualTo(stock);
+        assertThat(ledger.available(PRODUCT, stock)).isZero();
+    }
+}
@@ -0,0 +1,92 @@
+package com.shopcart.shopcart_backend.services;
+
+import com.shopcart.shopcart_backend.entities.Product;
+import com.shopcart.shopcart_backend.repositories.ProductRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many checkouts racing for the same products, each in its own transaction like placeOrder.
+ * Runs on its own database: the rows are committed and left behind.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:stock_race;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+@ActiveProfiles("test")
+class StockWriterConcurrencyTest {
+
+    private static final int CHECKOUTS = 64;
+    private static final int STOCK = 20;
+
+    @Autowired private StockWriter stockWriter;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentCheckoutsNeverDriveStockNegative() throws Exception {
+        Long lamp = productRepository.save(Product.builder().name("Lamp").price(40).stock(STOCK).build()).getId();
+        Long shade = productRepository.save(Product.builder().name("Shade").price(9).stock(STOCK).build()).getId();
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            // half the orders list the products the other way round; sorting must prevent deadlocks
+            Map<Long, Integer> order = i % 2 == 0 ? Map.of(lamp, 1, shade, 2) : Map.of(shade, 2, lamp, 1);
+            results.add(pool.submit(() -> {
+                start.await();
+                return transactions.execute(status -> {
+                    if (!stockWriter.decrement(order).isEmpty()) {
+                        status.setRollbackOnly(); // like placeOrder throwing
+                        return false;
+                    }
+                    return true;
+                });
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS)) succeeded++;
+        }
+        pool.shutdown();
+
+        // shade runs out first: 20 units at 2 per order
+        assertThat(succeeded).isEqualTo(STOCK / 2);
+        assertThat(stock(shade)).isZero();
+        // rolled-back orders gave back the lamp they had taken
+        assertThat(stock(lamp)).isEqualTo(STOCK - succeeded);
+    }
+
+    @Test
+    void incrementRestoresStock() {
+        Long mug = productRepository.save(Product.builder().name("Mug").price(8).stock(1).build()).getId();
+
+        stockWriter.increment(Map.of(mug, 4));
+
+        assertThat(stock(mug)).isEqualTo(5);
+    }
+
+    private int stock(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+    }
+}